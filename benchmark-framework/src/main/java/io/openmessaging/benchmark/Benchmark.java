@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.apache.bookkeeper.stats.NullStatsLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +40,7 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
 import io.openmessaging.benchmark.worker.DistributedWorkersEnsemble;
+import io.openmessaging.benchmark.worker.HistogramIntervalLog;
 import io.openmessaging.benchmark.worker.LocalWorker;
 import io.openmessaging.benchmark.worker.Worker;
 
@@ -66,6 +68,10 @@ public class Benchmark {
 
         @Parameter(names = { "-o", "--output" }, description = "Output", required = false)
         public String output;
+
+        @Parameter(names = { "-hl", "--histogram-log" }, description = "Write the interval latency histograms to "
+                + "this HdrHistogram log, when running without workers. Each worker has its own option for this")
+        public File histogramLog;
     }
 
     public static void main(String[] args) throws Exception {
@@ -123,7 +129,10 @@ public class Benchmark {
             worker = new DistributedWorkersEnsemble(arguments.workers);
         } else {
             // Use local worker implementation
-            worker = new LocalWorker();
+            HistogramIntervalLog histogramLog = arguments.histogramLog != null
+                    ? new HistogramIntervalLog(arguments.histogramLog, "local")
+                    : null;
+            worker = new LocalWorker(NullStatsLogger.INSTANCE, histogramLog);
         }
 
         workloads.forEach((workloadName, workload) -> {
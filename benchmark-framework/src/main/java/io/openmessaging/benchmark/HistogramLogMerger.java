@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import io.openmessaging.benchmark.utils.PaddingDecimalFormat;
+import io.openmessaging.benchmark.worker.HistogramIntervalLog;
+
+/**
+ * Merges the interval histogram logs written by the workers, and prints the cumulative latency percentiles of each
+ * kind of latency over a time window.
+ */
+public class HistogramLogMerger {
+
+    static class Arguments {
+
+        @Parameter(names = { "-h", "--help" }, description = "Help message", help = true)
+        boolean help;
+
+        @Parameter(description = "Histogram logs of the workers", required = true)
+        public List<File> logs;
+
+        @Parameter(names = { "-s", "--start" }, description = "Start of the time window, in seconds from the "
+                + "start of the earliest interval of the logs, or as seconds since the epoch")
+        public double startSec = 0;
+
+        @Parameter(names = { "-e", "--end" }, description = "End of the time window, in seconds from the "
+                + "start of the earliest interval of the logs, or as seconds since the epoch")
+        public double endSec = Double.MAX_VALUE;
+
+        @Parameter(names = { "-o", "--output" }, description = "Also write the full percentile distribution of each "
+                + "kind of latency, in milliseconds, to <output>-<kind>.hgrm")
+        public String output;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Arguments arguments = new Arguments();
+        JCommander jc = new JCommander(arguments);
+        jc.setProgramName("merge-histogram-logs");
+
+        try {
+            jc.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            jc.usage();
+            System.exit(-1);
+        }
+
+        if (arguments.help) {
+            jc.usage();
+            System.exit(-1);
+        }
+
+        Map<String, Histogram> histograms = merge(arguments.logs, arguments.startSec, arguments.endSec);
+        if (histograms.isEmpty()) {
+            System.err.println("No interval histograms in the time window");
+            System.exit(-1);
+        }
+
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            Histogram h = e.getValue();
+            System.out.printf("%-20s count: %10d | Latency (ms) avg: %s - 50%%: %s - 95%%: %s - 99%%: %s"
+                    + " - 99.9%%: %s - 99.99%%: %s - Max: %s%n", e.getKey(), h.getTotalCount(), dec.format(h.getMean() / 1000.0),
+                    dec.format(h.getValueAtPercentile(50) / 1000.0), dec.format(h.getValueAtPercentile(95) / 1000.0),
+                    dec.format(h.getValueAtPercentile(99) / 1000.0), dec.format(h.getValueAtPercentile(99.9) / 1000.0),
+                    dec.format(h.getValueAtPercentile(99.99) / 1000.0), dec.format(h.getMaxValue() / 1000.0));
+
+            if (arguments.output != null) {
+                try (PrintStream out = new PrintStream(new File(arguments.output + "-" + e.getKey() + ".hgrm"))) {
+                    h.outputPercentileDistribution(out, 5, 1000.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge the interval histograms of all the logs that start within the time window. Window bounds below a year are
+     * relative to the start of the earliest interval of the logs, and are otherwise seconds since the epoch.
+     *
+     * @return the merged histogram of each kind of latency, across all the workers
+     */
+    static Map<String, Histogram> merge(List<File> logs, double startSec, double endSec)
+            throws IOException {
+        double baseSec = earliestStartTimeSec(logs);
+        double windowStartSec = startSec < ONE_YEAR_SEC ? baseSec + startSec : startSec;
+        double windowEndSec = endSec < ONE_YEAR_SEC ? baseSec + endSec : endSec;
+
+        Map<String, Histogram> merged = new TreeMap<>();
+        for (File log : logs) {
+            try (InputStream in = new FileInputStream(log)) {
+                HistogramLogReader reader = new HistogramLogReader(in);
+                EncodableHistogram interval;
+                while ((interval = reader.nextIntervalHistogram()) != null) {
+                    double intervalStartSec = interval.getStartTimeStamp() / 1000.0;
+                    if (intervalStartSec < windowStartSec || intervalStartSec >= windowEndSec
+                            || !(interval instanceof Histogram)) {
+                        continue;
+                    }
+
+                    Histogram histogram = (Histogram) interval;
+                    merged.computeIfAbsent(HistogramIntervalLog.kindOf(histogram.getTag()),
+                            x -> new Histogram(histogram.getNumberOfSignificantValueDigits())).add(histogram);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static double earliestStartTimeSec(List<File> logs) throws IOException {
+        double earliest = Double.MAX_VALUE;
+        for (File log : logs) {
+            try (InputStream in = new FileInputStream(log)) {
+                // The intervals of a log are in chronological order
+                EncodableHistogram first = new HistogramLogReader(in).nextIntervalHistogram();
+                if (first != null) {
+                    earliest = Math.min(earliest, first.getStartTimeStamp() / 1000.0);
+                }
+            }
+        }
+        return earliest == Double.MAX_VALUE ? 0 : earliest;
+    }
+
+    private static final double ONE_YEAR_SEC = 365 * 24 * 3600.0;
+
+    private static final DecimalFormat dec = new PaddingDecimalFormat("0.000", 7);
+}
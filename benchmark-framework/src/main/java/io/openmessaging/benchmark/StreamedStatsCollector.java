@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+/**
+ * Receives the period stats streamed by the workers. Each streamed period is added at full resolution to the
+ * streamed series of the test result, and is also accumulated so that the regular reporting periods can be built
+ * from the streamed ones with {@link #drain()}.
+ */
+class StreamedStatsCollector implements Consumer<PeriodStats> {
+
+    private final TestResult result;
+    private final long intervalMillis;
+    private final int subscriptionsPerTopic;
+
+    private PeriodStats accumulated = new PeriodStats();
+
+    StreamedStatsCollector(TestResult result, long intervalMillis, int subscriptionsPerTopic) {
+        this.result = result;
+        this.intervalMillis = intervalMillis;
+        this.subscriptionsPerTopic = subscriptionsPerTopic;
+        result.statsStreamingIntervalMillis = intervalMillis;
+    }
+
+    @Override
+    public synchronized void accept(PeriodStats stats) {
+        double elapsedSeconds = intervalMillis / 1000.0;
+        result.streamedTimestamps.add(stats.timestampMillis);
+        result.streamedPublishRate.add(stats.messagesSent / elapsedSeconds);
+        result.streamedConsumeRate.add(stats.messagesReceived / elapsedSeconds);
+        result.streamedBacklog.add(backlog(stats));
+        result.streamedPublishLatency99pct.add(stats.publishLatency.getValueAtPercentile(99) / 1000.0);
+        result.streamedPublishLatencyMax.add(stats.publishLatency.getMaxValue() / 1000.0);
+        result.streamedEndToEndLatency99pct.add(stats.endToEndLatency.getValueAtPercentile(99) / 1000.0);
+        result.streamedEndToEndLatencyMax.add(stats.endToEndLatency.getMaxValue() / 1000.0);
+
+        accumulate(accumulated, stats);
+    }
+
+    /**
+     * @return the stats accumulated since the last call, as a single period
+     */
+    synchronized PeriodStats drain() {
+        PeriodStats stats = accumulated;
+        accumulated = new PeriodStats();
+
+        // The totals and the gauges carry over, in case no period is streamed before the next call
+        accumulated.totalMessagesSent = stats.totalMessagesSent;
+        accumulated.totalMessagesReceived = stats.totalMessagesReceived;
+        accumulated.totalMessagesSentPerTopic = stats.totalMessagesSentPerTopic;
+        accumulated.totalMessagesReceivedPerSubscription = stats.totalMessagesReceivedPerSubscription;
+        accumulated.outstandingRequests = stats.outstandingRequests;
+        accumulated.clockCalibrationErrorMicros = stats.clockCalibrationErrorMicros;
+        return stats;
+    }
+
+    private long backlog(PeriodStats stats) {
+        Map<String, Long> lags = SubscriptionLag.of(stats.totalMessagesSentPerTopic,
+                stats.totalMessagesReceivedPerSubscription);
+        return lags.isEmpty() ? subscriptionsPerTopic * stats.totalMessagesSent - stats.totalMessagesReceived
+                : SubscriptionLag.total(lags);
+    }
+
+    /**
+     * Add a later period of the same workers: the counters are summed, while the totals and the gauges are the ones of
+     * the later period
+     */
+    static void accumulate(PeriodStats stats, PeriodStats later) {
+        stats.timestampMillis = later.timestampMillis;
+        stats.messagesSent += later.messagesSent;
+        stats.bytesSent += later.bytesSent;
+        stats.messagesReceived += later.messagesReceived;
+        stats.bytesReceived += later.bytesReceived;
+        stats.totalMessagesSent = later.totalMessagesSent;
+        stats.totalMessagesReceived = later.totalMessagesReceived;
+        stats.totalMessagesSentPerTopic = new TreeMap<>(later.totalMessagesSentPerTopic);
+        stats.totalMessagesReceivedPerSubscription = new TreeMap<>(later.totalMessagesReceivedPerSubscription);
+        stats.publishWindowBlockedTimeMicros += later.publishWindowBlockedTimeMicros;
+        stats.outstandingRequests = later.outstandingRequests;
+        stats.peakOutstandingRequests = Math.max(stats.peakOutstandingRequests, later.peakOutstandingRequests);
+        stats.clockCalibrationErrorMicros = later.clockCalibrationErrorMicros;
+        stats.messagesLost += later.messagesLost;
+        stats.messagesDuplicated += later.messagesDuplicated;
+        stats.messagesOutOfOrder += later.messagesOutOfOrder;
+        stats.negativeEndToEndLatencies += later.negativeEndToEndLatencies;
+        stats.gcCount += later.gcCount;
+        stats.gcTimeMillis += later.gcTimeMillis;
+        stats.maxPauseMicros = Math.max(stats.maxPauseMicros, later.maxPauseMicros);
+        stats.allocatedBytes += later.allocatedBytes;
+        stats.heapUsedBytes = later.heapUsedBytes;
+        stats.heapCommittedBytes = later.heapCommittedBytes;
+        stats.threadCount = later.threadCount;
+        stats.processCpuTimeMillis += later.processCpuTimeMillis;
+
+        stats.publishLatency.add(later.publishLatency);
+        stats.correctedPublishLatency.add(later.correctedPublishLatency);
+        stats.endToEndLatency.add(later.endToEndLatency);
+        stats.consumerQueueDelay.add(later.consumerQueueDelay);
+
+        later.topicStats.forEach((topic, lts) -> {
+            TopicStats ts = stats.topicStats.computeIfAbsent(topic, x -> new TopicStats());
+            ts.messagesSent += lts.messagesSent;
+            ts.bytesSent += lts.bytesSent;
+            ts.messagesReceived += lts.messagesReceived;
+            ts.bytesReceived += lts.bytesReceived;
+            ts.publishLatency.add(lts.publishLatency);
+            ts.endToEndLatency.add(lts.endToEndLatency);
+            ts.otherTopics += lts.otherTopics;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exact backlog of each subscription, from the number of messages sent on each topic and the number of messages
+ * received by each subscription, as reported by the workers
+ */
+final class SubscriptionLag {
+
+    private SubscriptionLag() {
+    }
+
+    /**
+     * @return the lag of each subscription, keyed by topic and subscription name
+     */
+    static Map<String, Long> of(Map<String, Long> messagesSentPerTopic,
+            Map<String, Map<String, Long>> messagesReceivedPerSubscription) {
+        Map<String, Long> lags = new TreeMap<>();
+        messagesReceivedPerSubscription.forEach((topic, subscriptions) -> {
+            long sent = messagesSentPerTopic.getOrDefault(topic, 0L);
+            subscriptions.forEach((subscription, received) -> lags.put(topic + "/" + subscription, sent - received));
+        });
+        return lags;
+    }
+
+    static long total(Map<String, Long> lags) {
+        return lags.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Lowest ratio, across all the subscriptions, between the messages received by a subscription and the messages
+     * sent on its topic between two snapshots of the counters. A ratio below 1 means that at least one subscription
+     * is building a backlog, even if the others keep up.
+     *
+     * @return the lowest ratio, or 1 when no messages were sent between the snapshots
+     */
+    static double minReceiveRatio(Map<String, Long> previousSentPerTopic,
+            Map<String, Map<String, Long>> previousReceivedPerSubscription, Map<String, Long> sentPerTopic,
+            Map<String, Map<String, Long>> receivedPerSubscription) {
+        double minRatio = 1.0;
+        for (Map.Entry<String, Map<String, Long>> topic : receivedPerSubscription.entrySet()) {
+            long sent = sentPerTopic.getOrDefault(topic.getKey(), 0L)
+                    - previousSentPerTopic.getOrDefault(topic.getKey(), 0L);
+            if (sent <= 0) {
+                continue;
+            }
+
+            Map<String, Long> previousReceived = previousReceivedPerSubscription.getOrDefault(topic.getKey(),
+                    Collections.emptyMap());
+            for (Map.Entry<String, Long> subscription : topic.getValue().entrySet()) {
+                long received = subscription.getValue() - previousReceived.getOrDefault(subscription.getKey(), 0L);
+                minRatio = Math.min(minRatio, (double) received / sent);
+            }
+        }
+        return minRatio;
+    }
+}
@@ -23,14 +23,66 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import io.openmessaging.benchmark.utils.PacingStrategy;
+
 public class TestResult {
     public String workload;
     public String driver;
 
+    // Producer threads on each worker (0 means one per available processor) and how they pace the sends
+    public int producerThreads;
+    public PacingStrategy pacingStrategy;
+
+    // How far each producer worker started from the coordinated start time, in microseconds
+    public Map<String, Long> loadStartDeviationMicros = new TreeMap<>();
+
+    // Length of each period, the last one of a test can be shorter
+    public List<Double> periodSeconds = new ArrayList<>();
+
     public List<Double> publishRate = new ArrayList<>();
     public List<Double> consumeRate = new ArrayList<>();
+
+    // MB/s, from the actual size of each message
+    public List<Double> publishThroughput = new ArrayList<>();
+    public List<Double> consumeThroughput = new ArrayList<>();
     public List<Long> backlog = new ArrayList<>();
 
+    // Backlog of each subscription, keyed by topic and subscription name
+    public Map<String, List<Long>> subscriptionBacklog = new TreeMap<>();
+
+    // Producers outstanding requests window
+    public List<Double> publishWindowBlockedTimeMillis = new ArrayList<>();
+    public List<Long> outstandingRequests = new ArrayList<>();
+    public List<Long> peakOutstandingRequests = new ArrayList<>();
+
+    // Highest drift of the workers clock from the system clock at the last calibration
+    public List<Long> clockCalibrationErrorMicros = new ArrayList<>();
+
+    // Estimated offset of the clock of each worker from the clock of the coordinator, used to correct the end-to-end
+    // latency, and the uncertainty of the estimate
+    public Map<String, List<Long>> clockOffsetMicros = new TreeMap<>();
+    public Map<String, List<Long>> clockOffsetUncertaintyMicros = new TreeMap<>();
+    // End-to-end latencies left negative, by a clock offset that could not be corrected
+    public List<Long> negativeEndToEndLatencies = new ArrayList<>();
+
+    // JVM of the workers: the GC time and the longest pause are those of the worst worker, the rest is summed
+    public List<Long> workerGcCount = new ArrayList<>();
+    public List<Long> workerGcTimeMillis = new ArrayList<>();
+    public List<Double> workerMaxPauseMillis = new ArrayList<>();
+    public List<Double> workerAllocationRateMBs = new ArrayList<>();
+    public List<Double> workerHeapUsedMB = new ArrayList<>();
+    public List<Double> workerHeapCommittedMB = new ArrayList<>();
+    public List<Long> workerThreadCount = new ArrayList<>();
+    public List<Double> workerCpuCores = new ArrayList<>();
+    // Periods in which a worker stopped for longer than the threshold of the workload
+    public long workerPauseThresholdMillis;
+    public List<Boolean> workerPauseExceeded = new ArrayList<>();
+
+    // Consumers sequence tracking
+    public List<Long> messagesLost = new ArrayList<>();
+    public List<Long> messagesDuplicated = new ArrayList<>();
+    public List<Long> messagesOutOfOrder = new ArrayList<>();
+
     public List<Double> publishLatencyAvg = new ArrayList<>();
     public List<Double> publishLatency50pct = new ArrayList<>();
     public List<Double> publishLatency75pct = new ArrayList<>();
@@ -51,6 +103,29 @@ public class TestResult {
 
     public Map<Double, Double> aggregatedPublishLatencyQuantiles = new TreeMap<>();
 
+    // Publish latencies measured from the intended send time of each message, as set by the rate schedule, so that
+    // stalls in the driver or in the worker are not hidden by coordinated omission
+
+    public List<Double> correctedPublishLatencyAvg = new ArrayList<>();
+    public List<Double> correctedPublishLatency50pct = new ArrayList<>();
+    public List<Double> correctedPublishLatency75pct = new ArrayList<>();
+    public List<Double> correctedPublishLatency95pct = new ArrayList<>();
+    public List<Double> correctedPublishLatency99pct = new ArrayList<>();
+    public List<Double> correctedPublishLatency999pct = new ArrayList<>();
+    public List<Double> correctedPublishLatency9999pct = new ArrayList<>();
+    public List<Double> correctedPublishLatencyMax = new ArrayList<>();
+
+    public double aggregatedCorrectedPublishLatencyAvg;
+    public double aggregatedCorrectedPublishLatency50pct;
+    public double aggregatedCorrectedPublishLatency75pct;
+    public double aggregatedCorrectedPublishLatency95pct;
+    public double aggregatedCorrectedPublishLatency99pct;
+    public double aggregatedCorrectedPublishLatency999pct;
+    public double aggregatedCorrectedPublishLatency9999pct;
+    public double aggregatedCorrectedPublishLatencyMax;
+
+    public Map<Double, Double> aggregatedCorrectedPublishLatencyQuantiles = new TreeMap<>();
+
     // End to end latencies (from producer to consumer)
     // Latencies are expressed in milliseconds
 
@@ -73,4 +148,60 @@ public class TestResult {
     public double aggregatedEndToEndLatency999pct;
     public double aggregatedEndToEndLatency9999pct;
     public double aggregatedEndToEndLatencyMax;
+
+    // Time spent by the received messages waiting for a thread to do the simulated consumer work
+    public List<Double> consumerQueueDelayAvg = new ArrayList<>();
+    public List<Double> consumerQueueDelay50pct = new ArrayList<>();
+    public List<Double> consumerQueueDelay99pct = new ArrayList<>();
+    public List<Double> consumerQueueDelay999pct = new ArrayList<>();
+    public List<Double> consumerQueueDelayMax = new ArrayList<>();
+
+    public double aggregatedConsumerQueueDelayAvg;
+    public double aggregatedConsumerQueueDelay50pct;
+    public double aggregatedConsumerQueueDelay99pct;
+    public double aggregatedConsumerQueueDelay999pct;
+    public double aggregatedConsumerQueueDelayMax;
+
+    // Per-topic breakdown, when enabled: spread of the per-topic rates in msg/s, the busiest topics with their
+    // consume rate and the slowest topics with their 99th percentile end-to-end latency in ms, for each period
+    public List<Double> topicPublishRateMin = new ArrayList<>();
+    public List<Double> topicPublishRateAvg = new ArrayList<>();
+    public List<Double> topicPublishRateMax = new ArrayList<>();
+    public List<Double> topicPublishRateStdDev = new ArrayList<>();
+    public List<Double> topicConsumeRateMin = new ArrayList<>();
+    public List<Double> topicConsumeRateAvg = new ArrayList<>();
+    public List<Double> topicConsumeRateMax = new ArrayList<>();
+    public List<Double> topicConsumeRateStdDev = new ArrayList<>();
+    public List<Map<String, Double>> busiestTopics = new ArrayList<>();
+    public List<Map<String, Double>> slowestTopics = new ArrayList<>();
+
+    // Full resolution series, when the workers stream their stats: one entry per streaming interval, with the
+    // wall-clock time at the end of the interval, rates in msg/s and latencies in ms
+    public long statsStreamingIntervalMillis;
+    public List<Long> streamedTimestamps = new ArrayList<>();
+    public List<Double> streamedPublishRate = new ArrayList<>();
+    public List<Double> streamedConsumeRate = new ArrayList<>();
+    public List<Long> streamedBacklog = new ArrayList<>();
+    public List<Double> streamedPublishLatency99pct = new ArrayList<>();
+    public List<Double> streamedPublishLatencyMax = new ArrayList<>();
+    public List<Double> streamedEndToEndLatency99pct = new ArrayList<>();
+    public List<Double> streamedEndToEndLatencyMax = new ArrayList<>();
+
+    // Latency versus throughput curve, for a rate sweep: one entry per step, with the target and average rates in
+    // msg/s, and the latencies of the whole measurement window of the step in ms. A step is sustained when the
+    // producers kept up with the target rate and the consumers with the producers.
+    public double sweepMaxRate;
+    public List<Double> sweepTargetRate = new ArrayList<>();
+    public List<Double> sweepPublishRate = new ArrayList<>();
+    public List<Double> sweepConsumeRate = new ArrayList<>();
+    public List<Boolean> sweepSustained = new ArrayList<>();
+    public List<Double> sweepPublishLatency50pct = new ArrayList<>();
+    public List<Double> sweepPublishLatency99pct = new ArrayList<>();
+    public List<Double> sweepPublishLatency999pct = new ArrayList<>();
+    public List<Double> sweepPublishLatencyMax = new ArrayList<>();
+    public List<Double> sweepCorrectedPublishLatency99pct = new ArrayList<>();
+    public List<Double> sweepEndToEndLatency50pct = new ArrayList<>();
+    public List<Double> sweepEndToEndLatency99pct = new ArrayList<>();
+    public List<Double> sweepEndToEndLatency999pct = new ArrayList<>();
+    public List<Double> sweepEndToEndLatencyMax = new ArrayList<>();
 }
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+/**
+ * Bounded summary of the per-topic stats of one period: the spread of the per-topic rates, and the K busiest and
+ * slowest topics. Only this summary is kept in the results, since there can be thousands of topics.
+ * <p>
+ * The {@link TopicStats#OTHER_TOPICS} aggregate of the topics left out by the workers is never ranked, and only counts
+ * in the spread as that many topics at its average rate.
+ */
+final class TopicStatsSummary {
+
+    final Spread publishRate;
+    final Spread consumeRate;
+
+    /** Consume rate in msg/s of the busiest topics, highest first */
+    final Map<String, Double> busiestTopics;
+
+    /** 99th percentile of the end-to-end latency in ms of the slowest topics, highest first */
+    final Map<String, Double> slowestTopics;
+
+    private TopicStatsSummary(Spread publishRate, Spread consumeRate, Map<String, Double> busiestTopics,
+            Map<String, Double> slowestTopics) {
+        this.publishRate = publishRate;
+        this.consumeRate = consumeRate;
+        this.busiestTopics = busiestTopics;
+        this.slowestTopics = slowestTopics;
+    }
+
+    static TopicStatsSummary of(Map<String, TopicStats> topicStats, double elapsedSeconds, int topK) {
+        Spread publishRate = Spread.of(topicStats, ts -> ts.messagesSent / elapsedSeconds);
+        Spread consumeRate = Spread.of(topicStats, ts -> ts.messagesReceived / elapsedSeconds);
+        Map<String, Double> busiestTopics = top(topicStats, ts -> ts.messagesReceived / elapsedSeconds, topK);
+        Map<String, Double> slowestTopics = top(topicStats,
+                ts -> ts.endToEndLatency.getValueAtPercentile(99) / 1000.0, topK);
+        return new TopicStatsSummary(publishRate, consumeRate, busiestTopics, slowestTopics);
+    }
+
+    /**
+     * Select the K topics with the highest value, keeping no more than K candidates at any time
+     */
+    private static Map<String, Double> top(Map<String, TopicStats> topicStats, ToDoubleFunction<TopicStats> metric,
+            int k) {
+        PriorityQueue<Map.Entry<String, Double>> heap = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Map.Entry::getValue));
+        topicStats.forEach((topic, ts) -> {
+            if (ts.otherTopics > 0) {
+                return;
+            }
+            heap.add(new SimpleImmutableEntry<>(topic, metric.applyAsDouble(ts)));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        });
+
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(heap);
+        entries.sort(Comparator.comparingDouble((Map.Entry<String, Double> e) -> e.getValue()).reversed());
+
+        Map<String, Double> top = new LinkedHashMap<>();
+        entries.forEach(e -> top.put(e.getKey(), e.getValue()));
+        return top;
+    }
+
+    static final class Spread {
+        final double min;
+        final double avg;
+        final double max;
+        final double stdDev;
+
+        private Spread(double min, double avg, double max, double stdDev) {
+            this.min = min;
+            this.avg = avg;
+            this.max = max;
+            this.stdDev = stdDev;
+        }
+
+        static Spread of(Map<String, TopicStats> topicStats, ToDoubleFunction<TopicStats> metric) {
+            if (topicStats.isEmpty()) {
+                return new Spread(0, 0, 0, 0);
+            }
+
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            double sum = 0;
+            double sumOfSquares = 0;
+            long n = 0;
+            for (TopicStats ts : topicStats.values()) {
+                // The metrics are rates, so the aggregate of the other topics is the sum of their rates
+                double value = metric.applyAsDouble(ts);
+                int topics = Math.max(ts.otherTopics, 1);
+                double avgValue = value / topics;
+                min = Math.min(min, avgValue);
+                max = Math.max(max, avgValue);
+                sum += value;
+                sumOfSquares += avgValue * value;
+                n += topics;
+            }
+
+            double avg = sum / n;
+            double variance = Math.max(sumOfSquares / n - avg * avg, 0);
+            return new Spread(min, avg, max, Math.sqrt(variance));
+        }
+    }
+}
@@ -18,7 +18,12 @@
  */
 package io.openmessaging.benchmark;
 
+import io.openmessaging.benchmark.utils.ConsumerWork;
+import io.openmessaging.benchmark.utils.PacingStrategy;
+import io.openmessaging.benchmark.utils.RateSweep;
 import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.payload.MessageHeader;
+import io.openmessaging.benchmark.utils.payload.MessageSizeDistribution;
 
 public class Workload {
     public String name;
@@ -34,6 +39,88 @@ public class Workload {
     public int messageSize;
 
     public String payloadFile;
+
+    /**
+     * Number of distinct random payloads of {@link #messageSize} bytes that each worker generates before the test and
+     * cycles through. A value of 0 means every message is sent with the content of {@link #payloadFile}.
+     */
+    public int payloadPoolSize = 0;
+
+    /**
+     * Approximate ratio by which the generated payloads can be compressed. A value of 1.0 produces fully random,
+     * incompressible payloads.
+     */
+    public double payloadCompressionRatio = 1.0;
+
+    /**
+     * Optional distribution of the message sizes, which replaces the fixed {@link #messageSize}. The sizes are drawn
+     * once, when building the payload pool, so {@link #payloadPoolSize} should be large enough to represent the tail
+     * of the distribution.
+     */
+    public MessageSizeDistribution messageSizeDistribution;
+
+    /**
+     * Write a header with a nanosecond send timestamp, the producer id and a sequence number at the start of each
+     * message. The consumers then compute the end-to-end latency from this timestamp instead of the one provided by
+     * the driver. Each message is copied to write its header, and messages shorter than the header are padded.
+     */
+    public boolean messageHeaderEnabled = false;
+
+    /**
+     * Check the sequence numbers of the message header on the consumers, to count the lost, duplicated and
+     * out-of-order messages. All the consumers of a subscription are then placed on the same worker. Messages are
+     * out-of-order relative to the order in which each producer sent them, so some reordering is expected when a
+     * producer publishes across several partitions. The out-of-order messages of a producer are only counted while all
+     * its messages are received by the same consumer thread, as the order across threads is not known.
+     */
+    public boolean sequenceTrackingEnabled = false;
+
+    /**
+     * Optional work simulated by the consumers for each received message (CPU spin, sleep or allocation), done either
+     * on the driver callback thread or on a separate pool of threads. The end-to-end latency is measured when the
+     * message is received, and the time spent waiting for a work thread is reported separately.
+     */
+    public ConsumerWork consumerWork;
+
+    /**
+     * Run a latency versus throughput sweep instead of a single test at the producer rate: the same topics, producers
+     * and consumers are measured at each rate of the sweep, and the test duration is not used.
+     */
+    public RateSweep rateSweep;
+
+    /**
+     * Break down the rates and latencies by topic. Only a summary is kept in the results: the spread of the per-topic
+     * rates, and the {@link #topicStatsTopK} busiest and slowest topics of each period.
+     */
+    public boolean topicStatsEnabled = false;
+
+    /**
+     * Each worker only sends the stats of its own K busiest and K slowest topics, and an aggregate of its other topics,
+     * so that the stats don't grow with the number of topics. The spread of the per-topic rates is then approximate
+     * when a worker has more than 2 * K topics, and the busiest and slowest topics can be missed when their producers
+     * and consumers are split over several workers.
+     */
+    public int topicStatsTopK = 10;
+
+    /**
+     * Have the workers push their stats at this interval, down to 100 ms, and keep every interval in the results on
+     * top of the report periods. A value of 0 disables the streaming, and the stats are then only pulled from the
+     * workers at each report period.
+     */
+    public long statsStreamingIntervalMillis = 0;
+
+    /**
+     * Period at which the stats are logged and added to the results, and at which the streamed intervals are merged
+     * together. It is never shorter than the streaming interval.
+     */
+    public long statsReportIntervalMillis = 10_000;
+
+    /**
+     * Flag the periods in which a worker stopped for longer than this, as their latencies may come from the worker
+     * rather than from the broker. A value of 0 disables the flagging.
+     */
+    public long workerPauseThresholdMillis = 50;
+
     public int subscriptionsPerTopic;
 
     public int producersPerTopic;
@@ -42,6 +129,31 @@ public class Workload {
 
     public int producerRate;
 
+    /**
+     * Max number of messages each producer can have pending acknowledgement. When the window is full, the producer
+     * waits before sending more, rather than accumulating pending requests in memory. A value of 0 means no limit.
+     */
+    public int maxOutstandingRequests = 0;
+
+    /**
+     * Number of messages each producer accumulates before handing them to the driver in a single batch. Messages are
+     * still scheduled individually at the producer rate, so a batch is sent when its last message is due. Drivers
+     * without native batch support publish the messages one by one.
+     */
+    public int producerBatchSize = 1;
+
+    /**
+     * Number of dedicated threads driving the producers on each worker. A value of 0 means one thread for each
+     * available processor. Each producer is always driven by the same thread.
+     */
+    public int producerThreads = 0;
+
+    /**
+     * How the producer threads wait for the next message to be due. Spinning gives the most precise inter-send gaps at
+     * very high rates, at the cost of keeping one core busy for each producer thread.
+     */
+    public PacingStrategy pacingStrategy = PacingStrategy.PARK;
+
     /**
      * If the consumer backlog is > 0, the generator will accumulate messages until
      * the requested amount of storage is retained and then it will start the
@@ -73,5 +185,77 @@ public class Workload {
         if (producerRate < 0) {
             throw new IllegalArgumentException("Producer rate should be > 0");
         }
+
+        if (maxOutstandingRequests < 0) {
+            throw new IllegalArgumentException("Max outstanding requests should be >= 0");
+        }
+
+        if (payloadPoolSize < 0) {
+            throw new IllegalArgumentException("Payload pool size should be >= 0");
+        }
+
+        if (payloadPoolSize == 0 && payloadFile == null) {
+            throw new IllegalArgumentException("Either a payload file or a payload pool size is needed");
+        }
+
+        if (messageSizeDistribution != null) {
+            if (payloadPoolSize == 0) {
+                throw new IllegalArgumentException("Message size distributions need a payload pool size > 0");
+            }
+            messageSizeDistribution.validate();
+        }
+
+        if (sequenceTrackingEnabled && !messageHeaderEnabled) {
+            throw new IllegalArgumentException("Sequence tracking needs the message header to be enabled");
+        }
+
+        // The header identifies each producer of a worker by a 16 bits index
+        if (messageHeaderEnabled && (long) topics * producersPerTopic > MessageHeader.MAX_PRODUCER_INDEX + 1) {
+            throw new IllegalArgumentException(
+                    "The message header supports up to " + (MessageHeader.MAX_PRODUCER_INDEX + 1) + " producers");
+        }
+
+        if (consumerWork != null) {
+            consumerWork.validate();
+        }
+
+        if (topicStatsEnabled && topicStatsTopK <= 0) {
+            throw new IllegalArgumentException("Topic stats top K should be > 0");
+        }
+
+        if (statsStreamingIntervalMillis != 0 && statsStreamingIntervalMillis < 100) {
+            throw new IllegalArgumentException("Stats streaming interval should be 0 or >= 100 ms");
+        }
+
+        if (statsReportIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Stats report interval should be > 0");
+        }
+
+        if (rateSweep != null) {
+            if (consumerBacklogSizeGB > 0) {
+                throw new IllegalArgumentException("Rate sweeps cannot build a backlog");
+            }
+            rateSweep.validate();
+        }
+
+        if (workerPauseThresholdMillis < 0) {
+            throw new IllegalArgumentException("Worker pause threshold should be >= 0");
+        }
+
+        if (payloadCompressionRatio < 1.0) {
+            throw new IllegalArgumentException("Payload compression ratio should be >= 1.0");
+        }
+
+        if (producerThreads < 0) {
+            throw new IllegalArgumentException("Producer threads should be >= 0");
+        }
+
+        if (producerBatchSize < 1) {
+            throw new IllegalArgumentException("Producer batch size should be >= 1");
+        }
+
+        if (maxOutstandingRequests > 0 && maxOutstandingRequests < producerBatchSize) {
+            throw new IllegalArgumentException("Max outstanding requests should be >= producer batch size");
+        }
     }
 }
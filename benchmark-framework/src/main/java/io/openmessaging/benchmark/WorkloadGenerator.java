@@ -24,8 +24,12 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -33,11 +37,13 @@ import org.slf4j.LoggerFactory;
 
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.openmessaging.benchmark.utils.PaddingDecimalFormat;
+import io.openmessaging.benchmark.utils.RateSweep;
 import io.openmessaging.benchmark.utils.Timer;
 import io.openmessaging.benchmark.utils.payload.FilePayloadReader;
 import io.openmessaging.benchmark.utils.payload.PayloadReader;
 import io.openmessaging.benchmark.worker.Topic;
 import io.openmessaging.benchmark.worker.Worker;
+import io.openmessaging.benchmark.worker.commands.ClockOffset;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
@@ -55,11 +61,24 @@ public class WorkloadGenerator implements AutoCloseable {
     private final ExecutorService executor = Executors
             .newCachedThreadPool(new DefaultThreadFactory("messaging-benchmark"));
 
+    // The clocks drift apart over the test, so their offsets are estimated again in the background, off the loop that
+    // collects the stats of each period
+    private final ScheduledExecutorService clockSyncExecutor = Executors
+            .newSingleThreadScheduledExecutor(new DefaultThreadFactory("messaging-benchmark-clock-sync", true));
+    private volatile Map<String, ClockOffset> clockOffsets = Collections.emptyMap();
+
     private volatile boolean runCompleted = false;
     private volatile boolean needToWaitForBacklogDraining = false;
 
     private volatile double targetPublishRate;
 
+    private Future<?> maxRateDiscovery;
+    private volatile boolean maxRateDiscoveryCompleted = false;
+    // Highest rate sustained for a whole control period while discovering the max sustainable rate
+    private volatile double maxSustainedRate = 0;
+
+    private double averageMessageSize;
+
     public WorkloadGenerator(String driverName, Workload workload, Worker worker) {
         this.driverName = driverName;
         this.workload = workload;
@@ -85,13 +104,15 @@ public class WorkloadGenerator implements AutoCloseable {
             // ensureTopicsAreReady();
         }
 
-        if (workload.producerRate > 0) {
+        if (workload.rateSweep != null && !workload.rateSweep.isRelative()) {
+            targetPublishRate = workload.rateSweep.rate(0, 0);
+        } else if (workload.producerRate > 0) {
             targetPublishRate = workload.producerRate;
         } else {
             // Producer rate is 0 and we need to discover the sustainable rate
             targetPublishRate = 10000;
 
-            executor.execute(() -> {
+            maxRateDiscovery = executor.submit(() -> {
                 // Run background controller to adjust rate
                 try {
                     findMaximumSustainableRate(targetPublishRate);
@@ -101,34 +122,76 @@ public class WorkloadGenerator implements AutoCloseable {
             });
         }
 
-        final PayloadReader payloadReader = new FilePayloadReader(workload.messageSize);
+        averageMessageSize = workload.messageSize;
+        if (workload.messageSizeDistribution != null) {
+            workload.messageSizeDistribution.loadHistogram();
+            averageMessageSize = workload.messageSizeDistribution.estimateMeanSize();
+            log.info("Message size distribution {} with average size {} bytes", workload.messageSizeDistribution.type,
+                    (long) averageMessageSize);
+        }
 
         ProducerWorkAssignment producerWorkAssignment = new ProducerWorkAssignment();
         producerWorkAssignment.keyDistributorType = workload.keyDistributor;
         producerWorkAssignment.publishRate = targetPublishRate;
-        producerWorkAssignment.payloadData = payloadReader.load(workload.payloadFile);
+        producerWorkAssignment.messageSize = workload.messageSize;
+        if (workload.payloadPoolSize > 0) {
+            // Payloads are generated on each worker, to avoid shipping the whole pool over the wire
+            producerWorkAssignment.payloadPoolSize = workload.payloadPoolSize;
+            producerWorkAssignment.payloadCompressionRatio = workload.payloadCompressionRatio;
+            producerWorkAssignment.messageSizeDistribution = workload.messageSizeDistribution;
+        } else {
+            final PayloadReader payloadReader = new FilePayloadReader(workload.messageSize);
+            producerWorkAssignment.payloadData = payloadReader.load(workload.payloadFile);
+        }
+        producerWorkAssignment.maxOutstandingRequests = workload.maxOutstandingRequests;
+        producerWorkAssignment.batchSize = workload.producerBatchSize;
+        producerWorkAssignment.producerThreads = workload.producerThreads;
+        producerWorkAssignment.pacingStrategy = workload.pacingStrategy;
+        producerWorkAssignment.messageHeaderEnabled = workload.messageHeaderEnabled;
+        producerWorkAssignment.topicStatsEnabled = workload.topicStatsEnabled;
+        producerWorkAssignment.topicStatsTopK = workload.topicStatsTopK;
+
+        worker.prepareLoad(producerWorkAssignment);
 
         log.info("----- Starting warm-up traffic ------");
 
-        worker.startLoad(producerWorkAssignment);
+        // Correct the end-to-end latency, and the start time of each worker, by the offsets between their clocks
+        clockOffsets = worker.synchronizeClocks();
+        if (!clockOffsets.isEmpty()) {
+            log.info("Workers clock offsets (us): {}", clockOffsetsMicros(clockOffsets));
+            clockSyncExecutor.scheduleWithFixedDelay(this::synchronizeClocks, CLOCK_SYNC_INTERVAL_SECONDS,
+                    CLOCK_SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
 
-        printAndCollectStats(1, TimeUnit.MINUTES);
+        // Let all the workers start sending at the same instant, with enough margin for the request to reach them
+        Map<String, Long> loadStartDeviations = worker
+                .startLoadAt(TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() + LOAD_START_DELAY_MILLIS));
+        log.info("Load start deviation from target (us): {}", loadStartDeviations);
 
-        if (workload.consumerBacklogSizeGB > 0) {
-            executor.execute(() -> {
-                try {
-                    buildAndDrainBacklog(topics);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            });
-        }
+        TestResult result;
+        if (workload.rateSweep != null) {
+            result = runRateSweep(workload.rateSweep);
+        } else {
+            printAndCollectStats(1, TimeUnit.MINUTES);
+
+            if (workload.consumerBacklogSizeGB > 0) {
+                executor.execute(() -> {
+                    try {
+                        buildAndDrainBacklog(topics);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
 
-        worker.resetStats();
-        log.info("----- Starting benchmark traffic ------");
+            worker.resetStats();
+            log.info("----- Starting benchmark traffic ------");
 
-        TestResult result = printAndCollectStats(workload.testDurationMinutes, TimeUnit.MINUTES);
+            result = printAndCollectStats(workload.testDurationMinutes, TimeUnit.MINUTES);
+        }
+        result.loadStartDeviationMicros.putAll(loadStartDeviations);
         runCompleted = true;
+        clockSyncExecutor.shutdownNow();
 
         try {
             worker.stopAll();
@@ -138,6 +201,96 @@ public class WorkloadGenerator implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Measure the latency at each rate of the sweep, on the producers and consumers that are already running. Each step
+     * has its own warm-up, after which the stats are reset, so that the latencies of a step are not skewed by the
+     * transition from the previous rate.
+     */
+    private TestResult runRateSweep(RateSweep sweep) throws Exception {
+        double maxRate = workload.producerRate;
+        if (sweep.isRelative() && maxRate == 0) {
+            log.info("----- Discovering the max sustainable rate ------");
+            printAndCollectStats(sweep.discoverySeconds, TimeUnit.SECONDS);
+
+            // Wait for the controller to be done, so that it doesn't override the rate of the first step
+            maxRateDiscoveryCompleted = true;
+            maxRateDiscovery.get();
+            maxRate = maxSustainedRate;
+            if (maxRate == 0) {
+                throw new IllegalStateException("No sustainable rate found in " + sweep.discoverySeconds + " s");
+            }
+            log.info("Max sustainable rate: {} msg/s", rateFormat.format(maxRate));
+        }
+
+        TestResult result = newTestResult();
+        result.sweepMaxRate = maxRate;
+        for (int step = 0; step < sweep.steps(); step++) {
+            double rate = sweep.rate(step, maxRate);
+            log.info("----- Sweep step {}/{} at {} msg/s ------", step + 1, sweep.steps(), rateFormat.format(rate));
+            targetPublishRate = rate;
+            worker.adjustPublishRate(rate);
+
+            if (sweep.warmupSeconds > 0) {
+                printAndCollectStats(sweep.warmupSeconds, TimeUnit.SECONDS);
+            }
+            worker.resetStats();
+
+            TestResult stepResult = printAndCollectStats(sweep.measurementSeconds, TimeUnit.SECONDS);
+            addSweepStep(result, rate, stepResult);
+        }
+        return result;
+    }
+
+    private void addSweepStep(TestResult result, double targetRate, TestResult step) {
+        double publishRate = average(step.publishRate, step.periodSeconds);
+        double consumeRate = average(step.consumeRate, step.periodSeconds);
+        // The consumers receive a copy of each message per subscription
+        boolean sustained = publishRate >= targetRate * 0.95 && (workload.consumerPerSubscription == 0
+                || consumeRate >= publishRate * workload.subscriptionsPerTopic * 0.98);
+
+        log.info("----- Sweep step at {} msg/s: Pub rate {} msg/s - Cons rate {} msg/s - Sustained: {} | "
+                + "E2E Latency (ms) 50%: {} - 99%: {} - 99.9%: {}", rateFormat.format(targetRate),
+                rateFormat.format(publishRate), rateFormat.format(consumeRate), sustained,
+                dec.format(step.aggregatedEndToEndLatency50pct), dec.format(step.aggregatedEndToEndLatency99pct),
+                dec.format(step.aggregatedEndToEndLatency999pct));
+
+        result.sweepTargetRate.add(targetRate);
+        result.sweepPublishRate.add(publishRate);
+        result.sweepConsumeRate.add(consumeRate);
+        result.sweepSustained.add(sustained);
+        result.sweepPublishLatency50pct.add(step.aggregatedPublishLatency50pct);
+        result.sweepPublishLatency99pct.add(step.aggregatedPublishLatency99pct);
+        result.sweepPublishLatency999pct.add(step.aggregatedPublishLatency999pct);
+        result.sweepPublishLatencyMax.add(step.aggregatedPublishLatencyMax);
+        result.sweepCorrectedPublishLatency99pct.add(step.aggregatedCorrectedPublishLatency99pct);
+        result.sweepEndToEndLatency50pct.add(step.aggregatedEndToEndLatency50pct);
+        result.sweepEndToEndLatency99pct.add(step.aggregatedEndToEndLatency99pct);
+        result.sweepEndToEndLatency999pct.add(step.aggregatedEndToEndLatency999pct);
+        result.sweepEndToEndLatencyMax.add(step.aggregatedEndToEndLatencyMax);
+    }
+
+    /**
+     * Average of the rates of several periods, weighted by the length of each period
+     */
+    private static double average(List<Double> rates, List<Double> periodSeconds) {
+        double total = 0;
+        double seconds = 0;
+        for (int i = 0; i < rates.size(); i++) {
+            total += rates.get(i) * periodSeconds.get(i);
+            seconds += periodSeconds.get(i);
+        }
+        return seconds > 0 ? total / seconds : 0;
+    }
+
+    private void synchronizeClocks() {
+        try {
+            clockOffsets = worker.synchronizeClocks();
+            log.debug("Workers clock offsets (us): {}", clockOffsetsMicros(clockOffsets));
+        } catch (Exception e) {
+            log.warn("Failed to synchronize the clocks of the workers", e);
+        }
+    }
+
     private void ensureTopicsAreReady() throws IOException {
         log.info("Waiting for consumers to be ready");
         // This is work around the fact that there's no way to have a consumer ready in
@@ -180,13 +333,14 @@ public class WorkloadGenerator implements AutoCloseable {
 
         long localTotalMessagesSentCounter = stats.messagesSent;
         long localTotalMessagesReceivedCounter = stats.messagesReceived;
+        CountersStats previousStats = stats;
 
         int controlPeriodMillis = 3000;
         long lastControlTimestamp = System.nanoTime();
 
         int successfulPeriods = 0;
 
-        while (!runCompleted) {
+        while (!runCompleted && !maxRateDiscoveryCompleted) {
             // Check every few seconds and adjust the rate
             try {
                 Thread.sleep(controlPeriodMillis);
@@ -213,8 +367,16 @@ public class WorkloadGenerator implements AutoCloseable {
                         publishRateInLastPeriod, receiveRateInLastPeriod);
             }
 
+            // Each subscription must keep up with the publish rate of its own topic
+            boolean consumersAreBehind = stats.messagesReceivedPerSubscription.isEmpty()
+                    ? receiveRateInLastPeriod < publishRateInLastPeriod * 0.98
+                    : SubscriptionLag.minReceiveRatio(previousStats.messagesSentPerTopic,
+                            previousStats.messagesReceivedPerSubscription, stats.messagesSentPerTopic,
+                            stats.messagesReceivedPerSubscription) < 0.98;
+
             localTotalMessagesSentCounter = totalMessagesSent;
             localTotalMessagesReceivedCounter = totalMessagesReceived;
+            previousStats = stats;
             lastControlTimestamp = currentTime;
 
             if (log.isDebugEnabled()) {
@@ -229,7 +391,7 @@ public class WorkloadGenerator implements AutoCloseable {
                 currentRate = minRate + (currentRate - minRate) / 2;
 
                 log.debug("Publishers are not meeting requested rate. reducing to {}", currentRate);
-            } else if (receiveRateInLastPeriod < publishRateInLastPeriod * 0.98) {
+            } else if (consumersAreBehind) {
                 // If the consumers are building backlog, we should slow down publish rate
                 maxRate = currentRate;
                 currentRate = minRate + (currentRate - minRate) / 2;
@@ -239,7 +401,7 @@ public class WorkloadGenerator implements AutoCloseable {
                 worker.adjustPublishRate(minRate / 10);
                 while (true) {
                     stats = worker.getCountersStats();
-                    long backlog = workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived;
+                    long backlog = backlog(stats);
                     if (backlog < 1000) {
                         break;
                     }
@@ -264,15 +426,19 @@ public class WorkloadGenerator implements AutoCloseable {
                 stats = worker.getCountersStats();
                 localTotalMessagesSentCounter = stats.messagesSent;
                 localTotalMessagesReceivedCounter = stats.messagesReceived;
+                previousStats = stats;
 
-            } else if (currentRate < maxRate) {
-                minRate = currentRate;
-                currentRate = Math.min(currentRate * 2, maxRate);
-                log.debug("No bottleneck found, increasing the rate to {}", currentRate);
-            } else if (++successfulPeriods > 3) {
-                minRate = currentRate * 0.95;
-                maxRate = currentRate * 1.05;
-                successfulPeriods = 0;
+            } else {
+                maxSustainedRate = currentRate;
+                if (currentRate < maxRate) {
+                    minRate = currentRate;
+                    currentRate = Math.min(currentRate * 2, maxRate);
+                    log.debug("No bottleneck found, increasing the rate to {}", currentRate);
+                } else if (++successfulPeriods > 3) {
+                    minRate = currentRate * 0.95;
+                    maxRate = currentRate * 1.05;
+                    successfulPeriods = 0;
+                }
             }
 
             worker.adjustPublishRate(currentRate);
@@ -283,10 +449,16 @@ public class WorkloadGenerator implements AutoCloseable {
     public void close() throws Exception {
         worker.stopAll();
         executor.shutdownNow();
+        clockSyncExecutor.shutdownNow();
     }
 
     private void createConsumers(List<Topic> topics) throws IOException {
         ConsumerAssignment consumerAssignment = new ConsumerAssignment();
+        consumerAssignment.messageHeaderEnabled = workload.messageHeaderEnabled;
+        consumerAssignment.sequenceTrackingEnabled = workload.sequenceTrackingEnabled;
+        consumerAssignment.consumerWork = workload.consumerWork;
+        consumerAssignment.topicStatsEnabled = workload.topicStatsEnabled;
+        consumerAssignment.topicStatsTopK = workload.topicStatsTopK;
 
         for (Topic topic : topics) {
             for (int i = 0; i < workload.subscriptionsPerTopic; i++) {
@@ -331,8 +503,7 @@ public class WorkloadGenerator implements AutoCloseable {
 
         while (true) {
             CountersStats stats = worker.getCountersStats();
-            long currentBacklogSize = (workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived)
-                    * workload.messageSize;
+            long currentBacklogSize = (long) (backlog(stats) * averageMessageSize);
 
             if (currentBacklogSize >= requestedBacklogSize) {
                 break;
@@ -357,7 +528,7 @@ public class WorkloadGenerator implements AutoCloseable {
 
         while (true) {
             CountersStats stats = worker.getCountersStats();
-            long currentBacklog = workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived;
+            long currentBacklog = backlog(stats);
             if (currentBacklog <= minBacklog) {
                 log.info("--- Completed backlog draining ---");
                 needToWaitForBacklogDraining = false;
@@ -372,6 +543,18 @@ public class WorkloadGenerator implements AutoCloseable {
         }
     }
 
+    /**
+     * Exact backlog summed across all the subscriptions. Falls back to an estimate that assumes every subscription
+     * received the same number of messages when the workers don't report the counters of each subscription.
+     */
+    private long backlog(CountersStats stats) {
+        if (stats.messagesReceivedPerSubscription.isEmpty()) {
+            return workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived;
+        }
+        return SubscriptionLag.total(SubscriptionLag.of(stats.messagesSentPerTopic,
+                stats.messagesReceivedPerSubscription));
+    }
+
     private TestResult printAndCollectStats(long testDurations, TimeUnit unit) throws IOException {
         long startTime = System.nanoTime();
 
@@ -380,18 +563,54 @@ public class WorkloadGenerator implements AutoCloseable {
 
         long testEndTime = testDurations > 0 ? startTime + unit.toNanos(testDurations) : Long.MAX_VALUE;
 
+        TestResult result = newTestResult();
+
+        StreamedStatsCollector streamedStats = null;
+        if (workload.statsStreamingIntervalMillis > 0) {
+            streamedStats = new StreamedStatsCollector(result, workload.statsStreamingIntervalMillis,
+                    workload.subscriptionsPerTopic);
+            worker.startStatsStreaming(workload.statsStreamingIntervalMillis, streamedStats);
+        }
+
+        try {
+            collectStats(result, streamedStats, oldTime, testEndTime);
+        } finally {
+            if (streamedStats != null) {
+                worker.stopStatsStreaming();
+            }
+        }
+
+        return result;
+    }
+
+    private TestResult newTestResult() {
         TestResult result = new TestResult();
         result.workload = workload.name;
         result.driver = driverName;
+        result.producerThreads = workload.producerThreads;
+        result.pacingStrategy = workload.pacingStrategy;
+        result.workerPauseThresholdMillis = workload.workerPauseThresholdMillis;
+        return result;
+    }
 
+    private void collectStats(TestResult result, StreamedStatsCollector streamedStats, long oldTime,
+            long testEndTime) throws IOException {
+        long reportPeriodNanos = TimeUnit.MILLISECONDS
+                .toNanos(Math.max(workload.statsReportIntervalMillis, workload.statsStreamingIntervalMillis));
         while (true) {
+            // The last period ends with the test, so that the test doesn't run past its duration
+            long remainingNanos = testEndTime - System.nanoTime();
+            long periodNanos = remainingNanos > 0 ? Math.min(reportPeriodNanos, remainingNanos) : reportPeriodNanos;
             try {
-                Thread.sleep(10000);
+                // Rounded up, so as not to wake up just before the end of the test
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis(periodNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
             } catch (InterruptedException e) {
                 break;
             }
 
-            PeriodStats stats = worker.getPeriodStats();
+            // When streaming, the workers reset their stats at each interval, so the period is rebuilt from the
+            // intervals streamed since the last one
+            PeriodStats stats = streamedStats != null ? streamedStats.drain() : worker.getPeriodStats();
 
             long now = System.nanoTime();
             double elapsed = (now - oldTime) / 1e9;
@@ -402,8 +621,11 @@ public class WorkloadGenerator implements AutoCloseable {
             double consumeRate = stats.messagesReceived / elapsed;
             double consumeThroughput = stats.bytesReceived / elapsed / 1024 / 1024;
 
-            long currentBacklog = workload.subscriptionsPerTopic * stats.totalMessagesSent
-                    - stats.totalMessagesReceived;
+            Map<String, Long> subscriptionLags = SubscriptionLag.of(stats.totalMessagesSentPerTopic,
+                    stats.totalMessagesReceivedPerSubscription);
+            long currentBacklog = subscriptionLags.isEmpty()
+                    ? workload.subscriptionsPerTopic * stats.totalMessagesSent - stats.totalMessagesReceived
+                    : SubscriptionLag.total(subscriptionLags);
 
             log.info(
                     "Pub rate {} msg/s / {} Mb/s | Cons rate {} msg/s / {} Mb/s | Backlog: {} K | Pub Latency (ms) avg: {} - 50%: {} - 99%: {} - 99.9%: {} - Max: {}",
@@ -416,6 +638,13 @@ public class WorkloadGenerator implements AutoCloseable {
                     dec.format(microsToMillis(stats.publishLatency.getValueAtPercentile(99.9))),
                     throughputFormat.format(microsToMillis(stats.publishLatency.getMaxValue())));
 
+            log.info("Corrected Pub Latency (ms) avg: {} - 50%: {} - 99%: {} - 99.9%: {} - Max: {}",
+                    dec.format(microsToMillis(stats.correctedPublishLatency.getMean())),
+                    dec.format(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(50))),
+                    dec.format(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(99))),
+                    dec.format(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(99.9))),
+                    throughputFormat.format(microsToMillis(stats.correctedPublishLatency.getMaxValue())));
+
             log.info("E2E Latency (ms) avg: {} - 50%: {} - 99%: {} - 99.9%: {} - Max: {}",
                     dec.format(microsToMillis(stats.endToEndLatency.getMean())),
                     dec.format(microsToMillis(stats.endToEndLatency.getValueAtPercentile(50))),
@@ -423,9 +652,81 @@ public class WorkloadGenerator implements AutoCloseable {
                     dec.format(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.9))),
                     throughputFormat.format(microsToMillis(stats.endToEndLatency.getMaxValue())));
 
+            if (workload.maxOutstandingRequests > 0) {
+                log.info("Outstanding requests: {} - Peak per producer: {} | Blocked on window (ms): {}",
+                        stats.outstandingRequests, stats.peakOutstandingRequests,
+                        dec.format(microsToMillis(stats.publishWindowBlockedTimeMicros)));
+            }
+
+            if (workload.consumerWork != null && workload.consumerWork.threads > 0) {
+                log.info("Consumer queue delay (ms) avg: {} - 50%: {} - 99%: {} - 99.9%: {} - Max: {}",
+                        dec.format(microsToMillis(stats.consumerQueueDelay.getMean())),
+                        dec.format(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(99))),
+                        dec.format(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(99.9))),
+                        throughputFormat.format(microsToMillis(stats.consumerQueueDelay.getMaxValue())));
+            }
+
+            double workerMaxPauseMillis = microsToMillis(stats.maxPauseMicros);
+            double workerAllocationRate = stats.allocatedBytes / elapsed / 1024 / 1024;
+            double workerHeapUsed = stats.heapUsedBytes / 1024.0 / 1024;
+            double workerHeapCommitted = stats.heapCommittedBytes / 1024.0 / 1024;
+            double workerCpuCores = stats.processCpuTimeMillis / 1000.0 / elapsed;
+            boolean workerPauseExceeded = workload.workerPauseThresholdMillis > 0
+                    && workerMaxPauseMillis > workload.workerPauseThresholdMillis;
+
+            log.info(
+                    "Worker GC: {} - {} ms | Max pause (ms): {} | Alloc rate {} MB/s | Heap {} / {} MB | Threads: {} | CPU cores: {}",
+                    stats.gcCount, stats.gcTimeMillis, dec.format(workerMaxPauseMillis),
+                    throughputFormat.format(workerAllocationRate), dec.format(workerHeapUsed),
+                    dec.format(workerHeapCommitted), stats.threadCount, dec.format(workerCpuCores));
+            if (workerPauseExceeded) {
+                log.warn("A worker stopped for {} ms, over the threshold of {} ms - The latencies of the period may "
+                        + "come from the worker", dec.format(workerMaxPauseMillis),
+                        workload.workerPauseThresholdMillis);
+            }
+
+            if (stats.negativeEndToEndLatencies > 0) {
+                log.warn("Negative E2E latencies: {} - The clocks of the workers are not in sync",
+                        stats.negativeEndToEndLatencies);
+            }
+
+            if (workload.sequenceTrackingEnabled) {
+                log.info("Messages lost: {} - Duplicated: {} - Out of order: {}", stats.messagesLost,
+                        stats.messagesDuplicated, stats.messagesOutOfOrder);
+            }
+
+            result.periodSeconds.add(elapsed);
             result.publishRate.add(publishRate);
             result.consumeRate.add(consumeRate);
+            result.publishThroughput.add(publishThroughput);
+            result.consumeThroughput.add(consumeThroughput);
             result.backlog.add(currentBacklog);
+            subscriptionLags.forEach((subscription, lag) -> result.subscriptionBacklog
+                    .computeIfAbsent(subscription, x -> new ArrayList<>()).add(lag));
+            result.publishWindowBlockedTimeMillis.add(microsToMillis(stats.publishWindowBlockedTimeMicros));
+            result.outstandingRequests.add(stats.outstandingRequests);
+            result.peakOutstandingRequests.add(stats.peakOutstandingRequests);
+            result.clockCalibrationErrorMicros.add(stats.clockCalibrationErrorMicros);
+            clockOffsets.forEach((w, offset) -> {
+                result.clockOffsetMicros.computeIfAbsent(w, x -> new ArrayList<>())
+                        .add(TimeUnit.NANOSECONDS.toMicros(offset.offsetNanos));
+                result.clockOffsetUncertaintyMicros.computeIfAbsent(w, x -> new ArrayList<>())
+                        .add(TimeUnit.NANOSECONDS.toMicros(offset.uncertaintyNanos));
+            });
+            result.negativeEndToEndLatencies.add(stats.negativeEndToEndLatencies);
+            result.workerGcCount.add(stats.gcCount);
+            result.workerGcTimeMillis.add(stats.gcTimeMillis);
+            result.workerMaxPauseMillis.add(workerMaxPauseMillis);
+            result.workerAllocationRateMBs.add(workerAllocationRate);
+            result.workerHeapUsedMB.add(workerHeapUsed);
+            result.workerHeapCommittedMB.add(workerHeapCommitted);
+            result.workerThreadCount.add(stats.threadCount);
+            result.workerCpuCores.add(workerCpuCores);
+            result.workerPauseExceeded.add(workerPauseExceeded);
+            result.messagesLost.add(stats.messagesLost);
+            result.messagesDuplicated.add(stats.messagesDuplicated);
+            result.messagesOutOfOrder.add(stats.messagesOutOfOrder);
             result.publishLatencyAvg.add(microsToMillis(stats.publishLatency.getMean()));
             result.publishLatency50pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(50)));
             result.publishLatency75pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(75)));
@@ -435,6 +736,21 @@ public class WorkloadGenerator implements AutoCloseable {
             result.publishLatency9999pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99.99)));
             result.publishLatencyMax.add(microsToMillis(stats.publishLatency.getMaxValue()));
 
+            result.correctedPublishLatencyAvg.add(microsToMillis(stats.correctedPublishLatency.getMean()));
+            result.correctedPublishLatency50pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(50)));
+            result.correctedPublishLatency75pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(75)));
+            result.correctedPublishLatency95pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(95)));
+            result.correctedPublishLatency99pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(99)));
+            result.correctedPublishLatency999pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(99.9)));
+            result.correctedPublishLatency9999pct
+                    .add(microsToMillis(stats.correctedPublishLatency.getValueAtPercentile(99.99)));
+            result.correctedPublishLatencyMax.add(microsToMillis(stats.correctedPublishLatency.getMaxValue()));
+
             result.endToEndLatencyAvg.add(microsToMillis(stats.endToEndLatency.getMean()));
             result.endToEndLatency50pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(50)));
             result.endToEndLatency75pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(75)));
@@ -444,6 +760,16 @@ public class WorkloadGenerator implements AutoCloseable {
             result.endToEndLatency9999pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.99)));
             result.endToEndLatencyMax.add(microsToMillis(stats.endToEndLatency.getMaxValue()));
 
+            result.consumerQueueDelayAvg.add(microsToMillis(stats.consumerQueueDelay.getMean()));
+            result.consumerQueueDelay50pct.add(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(50)));
+            result.consumerQueueDelay99pct.add(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(99)));
+            result.consumerQueueDelay999pct.add(microsToMillis(stats.consumerQueueDelay.getValueAtPercentile(99.9)));
+            result.consumerQueueDelayMax.add(microsToMillis(stats.consumerQueueDelay.getMaxValue()));
+
+            if (workload.topicStatsEnabled) {
+                collectTopicStats(stats, elapsed, result);
+            }
+
             if (now >= testEndTime && !needToWaitForBacklogDraining) {
                 boolean complete = false;
                 int retry = 0;
@@ -482,6 +808,32 @@ public class WorkloadGenerator implements AutoCloseable {
                 result.aggregatedPublishLatency9999pct = microsToMillis(agg.publishLatency.getValueAtPercentile(99.99));
                 result.aggregatedPublishLatencyMax = microsToMillis(agg.publishLatency.getMaxValue());
 
+                log.info(
+                        "----- Aggregated Corrected Pub Latency (ms) avg: {} - 50%: {} - 95%: {} - 99%: {} - 99.9%: {} - 99.99%: {} - Max: {}",
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getMean())),
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getValueAtPercentile(95))),
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getValueAtPercentile(99))),
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getValueAtPercentile(99.9))),
+                        dec.format(microsToMillis(agg.correctedPublishLatency.getValueAtPercentile(99.99))),
+                        throughputFormat.format(microsToMillis(agg.correctedPublishLatency.getMaxValue())));
+
+                result.aggregatedCorrectedPublishLatencyAvg = microsToMillis(agg.correctedPublishLatency.getMean());
+                result.aggregatedCorrectedPublishLatency50pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(50));
+                result.aggregatedCorrectedPublishLatency75pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(75));
+                result.aggregatedCorrectedPublishLatency95pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(95));
+                result.aggregatedCorrectedPublishLatency99pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(99));
+                result.aggregatedCorrectedPublishLatency999pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(99.9));
+                result.aggregatedCorrectedPublishLatency9999pct = microsToMillis(
+                        agg.correctedPublishLatency.getValueAtPercentile(99.99));
+                result.aggregatedCorrectedPublishLatencyMax = microsToMillis(
+                        agg.correctedPublishLatency.getMaxValue());
+
                 result.aggregatedEndToEndLatencyAvg = microsToMillis(agg.endToEndLatency.getMean());
                 result.aggregatedEndToEndLatency50pct = microsToMillis(agg.endToEndLatency.getValueAtPercentile(50));
                 result.aggregatedEndToEndLatency75pct = microsToMillis(agg.endToEndLatency.getValueAtPercentile(75));
@@ -492,11 +844,25 @@ public class WorkloadGenerator implements AutoCloseable {
                         agg.endToEndLatency.getValueAtPercentile(99.99));
                 result.aggregatedEndToEndLatencyMax = microsToMillis(agg.endToEndLatency.getMaxValue());
 
+                result.aggregatedConsumerQueueDelayAvg = microsToMillis(agg.consumerQueueDelay.getMean());
+                result.aggregatedConsumerQueueDelay50pct = microsToMillis(
+                        agg.consumerQueueDelay.getValueAtPercentile(50));
+                result.aggregatedConsumerQueueDelay99pct = microsToMillis(
+                        agg.consumerQueueDelay.getValueAtPercentile(99));
+                result.aggregatedConsumerQueueDelay999pct = microsToMillis(
+                        agg.consumerQueueDelay.getValueAtPercentile(99.9));
+                result.aggregatedConsumerQueueDelayMax = microsToMillis(agg.consumerQueueDelay.getMaxValue());
+
                 agg.publishLatency.percentiles(100).forEach(value -> {
                     result.aggregatedPublishLatencyQuantiles.put(value.getPercentile(),
                             microsToMillis(value.getValueIteratedTo()));
                 });
 
+                agg.correctedPublishLatency.percentiles(100).forEach(value -> {
+                    result.aggregatedCorrectedPublishLatencyQuantiles.put(value.getPercentile(),
+                            microsToMillis(value.getValueIteratedTo()));
+                });
+
                 agg.endToEndLatency.percentiles(100).forEach(value -> {
                     result.aggregatedEndToEndLatencyQuantiles.put(value.getPercentile(),
                             microsToMillis(value.getValueIteratedTo()));
@@ -507,8 +873,32 @@ public class WorkloadGenerator implements AutoCloseable {
 
             oldTime = now;
         }
+    }
 
-        return result;
+    private void collectTopicStats(PeriodStats stats, double elapsed, TestResult result) {
+        TopicStatsSummary summary = TopicStatsSummary.of(stats.topicStats, elapsed, workload.topicStatsTopK);
+
+        log.info("Topic cons rate (msg/s) min: {} - avg: {} - max: {} - stddev: {} | Slowest topics E2E 99% (ms): {}",
+                rateFormat.format(summary.consumeRate.min), rateFormat.format(summary.consumeRate.avg),
+                rateFormat.format(summary.consumeRate.max), rateFormat.format(summary.consumeRate.stdDev),
+                summary.slowestTopics);
+
+        result.topicPublishRateMin.add(summary.publishRate.min);
+        result.topicPublishRateAvg.add(summary.publishRate.avg);
+        result.topicPublishRateMax.add(summary.publishRate.max);
+        result.topicPublishRateStdDev.add(summary.publishRate.stdDev);
+        result.topicConsumeRateMin.add(summary.consumeRate.min);
+        result.topicConsumeRateAvg.add(summary.consumeRate.avg);
+        result.topicConsumeRateMax.add(summary.consumeRate.max);
+        result.topicConsumeRateStdDev.add(summary.consumeRate.stdDev);
+        result.busiestTopics.add(summary.busiestTopics);
+        result.slowestTopics.add(summary.slowestTopics);
+    }
+
+    private static Map<String, Long> clockOffsetsMicros(Map<String, ClockOffset> clockOffsets) {
+        Map<String, Long> offsetsMicros = new TreeMap<>();
+        clockOffsets.forEach((w, offset) -> offsetsMicros.put(w, TimeUnit.NANOSECONDS.toMicros(offset.offsetNanos)));
+        return offsetsMicros;
     }
 
     private static double microsToMillis(double microTime) {
@@ -523,5 +913,9 @@ public class WorkloadGenerator implements AutoCloseable {
     private static final DecimalFormat throughputFormat = new PaddingDecimalFormat("0.000", 4);
     private static final DecimalFormat dec = new PaddingDecimalFormat("0.000", 4);
 
+    private static final long LOAD_START_DELAY_MILLIS = 500;
+
+    private static final long CLOCK_SYNC_INTERVAL_SECONDS = 60;
+
     private static final Logger log = LoggerFactory.getLogger(WorkloadGenerator.class);
 }
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated processing done by the consumers for each received message, to stand in for the work of a real
+ * application.
+ */
+public class ConsumerWork {
+
+    public enum Type {
+        /**
+         * No work, the callback returns right away
+         */
+        NONE,
+
+        /**
+         * Keep the CPU busy for durationMicros
+         */
+        SPIN,
+
+        /**
+         * Block the thread for durationMicros, like a call to a remote service would
+         */
+        SLEEP,
+
+        /**
+         * Allocate allocationBytes, to add pressure on the garbage collector
+         */
+        ALLOCATE
+    }
+
+    public Type type = Type.NONE;
+
+    public long durationMicros = 0;
+
+    public int allocationBytes = 0;
+
+    /**
+     * Number of threads doing the work. With 0 threads, the work is done inline on the driver callback thread.
+     */
+    public int threads = 0;
+
+    /**
+     * Max number of messages waiting for a thread. When the queue is full, the driver callback thread does the work
+     * itself, which pushes back on the driver.
+     */
+    public int queueSize = 10_000;
+
+    public void validate() throws IllegalArgumentException {
+        if (type == null) {
+            throw new IllegalArgumentException("Consumer work type is missing");
+        }
+
+        if (durationMicros < 0 || allocationBytes < 0) {
+            throw new IllegalArgumentException("Consumer work duration and allocation should be >= 0");
+        }
+
+        if (threads < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Consumer work should have threads >= 0 and queueSize > 0");
+        }
+    }
+
+    public void perform() {
+        switch (type) {
+        case SPIN: {
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(durationMicros);
+            while (deadline - System.nanoTime() > 0) {
+                // Busy wait
+            }
+            break;
+        }
+        case SLEEP: {
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(durationMicros);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+            break;
+        }
+        case ALLOCATE: {
+            byte[] buffer = new byte[allocationBytes];
+            // Publish the buffer so the allocation can't be optimized away
+            allocationSink = buffer;
+            break;
+        }
+        default:
+            break;
+        }
+    }
+
+    private static volatile Object allocationSink;
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Wall-clock time with nanosecond resolution, derived from {@link System#nanoTime()}.
+ * <p>
+ * The clock is anchored to the epoch by waiting for {@link System#currentTimeMillis()} to tick, which pins the
+ * millisecond boundary between two readings of the monotonic clock, even when the system clock has a millisecond
+ * resolution. Several ticks are sampled, and the one with the tightest bracket is kept, as a wide bracket means that
+ * the thread was preempted while reading the clocks. Reading the time is then a volatile read and a call to
+ * {@link System#nanoTime()}, without any allocation.
+ * <p>
+ * Since the monotonic clock and the system clock drift apart (eg: when NTP slews the system clock), the anchor is
+ * re-calibrated periodically in the background. The clock is slewed toward the new anchor over the next calibration
+ * interval rather than jumping to it, unless the system clock was stepped. The difference between the time predicted
+ * by the old anchor and the new one is kept as the calibration error.
+ */
+public class EpochClock implements AutoCloseable {
+
+    private final LongSupplier nanoTime;
+    private final LongSupplier currentTimeMillis;
+    private final long slewDurationNanos;
+
+    private volatile Anchor anchor;
+
+    private volatile long lastCalibrationErrorNanos = 0;
+
+    private final ScheduledExecutorService calibrationExecutor;
+
+    public EpochClock(long calibrationInterval, TimeUnit unit) {
+        this(calibrationInterval, unit, System::nanoTime, System::currentTimeMillis);
+    }
+
+    EpochClock(long calibrationInterval, TimeUnit unit, LongSupplier nanoTime, LongSupplier currentTimeMillis) {
+        this.nanoTime = nanoTime;
+        this.currentTimeMillis = currentTimeMillis;
+        this.slewDurationNanos = unit.toNanos(calibrationInterval);
+
+        // The first anchor is kept whatever its bracket, as there is nothing better to fall back to
+        Sample sample = sample();
+        this.anchor = new Anchor(sample.epochNanos, sample.nanoTime, 0, 0);
+
+        this.calibrationExecutor = Executors
+                .newSingleThreadScheduledExecutor(new DefaultThreadFactory("epoch-clock", true));
+        calibrationExecutor.scheduleAtFixedRate(this::calibrate, calibrationInterval, calibrationInterval, unit);
+    }
+
+    /**
+     * @return the current time, in nanoseconds since the epoch
+     */
+    public long currentTimeNanos() {
+        return anchor.epochNanosAt(nanoTime.getAsLong());
+    }
+
+    /**
+     * @return the absolute difference, in nanoseconds, between this clock and the system clock at the last
+     *         calibration
+     */
+    public long getLastCalibrationErrorNanos() {
+        return lastCalibrationErrorNanos;
+    }
+
+    void calibrate() {
+        try {
+            Sample sample = sample();
+            if (sample.bracketNanos > MAX_BRACKET_NANOS) {
+                log.debug("Epoch clock calibration skipped, all the samples were preempted - bracket: {} us",
+                        TimeUnit.NANOSECONDS.toMicros(sample.bracketNanos));
+                return;
+            }
+
+            long predictedEpochNanos = anchor.epochNanosAt(sample.nanoTime);
+            long errorNanos = sample.epochNanos - predictedEpochNanos;
+            lastCalibrationErrorNanos = Math.abs(errorNanos);
+            if (Math.abs(errorNanos) > MAX_SLEW_NANOS) {
+                // The system clock was stepped, catching up at the slew rate would take too long
+                anchor = new Anchor(sample.epochNanos, sample.nanoTime, 0, 0);
+            } else {
+                anchor = new Anchor(predictedEpochNanos, sample.nanoTime, errorNanos, slewDurationNanos);
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Epoch clock calibrated, error: {} us - bracket: {} us",
+                        TimeUnit.NANOSECONDS.toMicros(errorNanos), TimeUnit.NANOSECONDS.toMicros(sample.bracketNanos));
+            }
+        } catch (Throwable t) {
+            log.warn("Failed to calibrate epoch clock", t);
+        }
+    }
+
+    @Override
+    public void close() {
+        calibrationExecutor.shutdownNow();
+    }
+
+    /**
+     * @return the sample with the tightest bracket, out of {@link #CALIBRATION_SAMPLES}
+     */
+    private Sample sample() {
+        Sample best = null;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            Sample sample = sampleTick();
+            if (best == null || sample.bracketNanos < best.bracketNanos) {
+                best = sample;
+            }
+        }
+        return best;
+    }
+
+    private Sample sampleTick() {
+        // Spin until the millisecond ticks. The tick happened after the last reading of the old millisecond, itself
+        // after the reading of the monotonic clock that precedes it, and before the reading of the monotonic clock
+        // that follows the first reading of the new millisecond.
+        long previous;
+        long current = nanoTime.getAsLong();
+        long startMillis = currentTimeMillis.getAsLong();
+        long millis;
+        do {
+            previous = current;
+            current = nanoTime.getAsLong();
+            millis = currentTimeMillis.getAsLong();
+        } while (millis == startMillis);
+        long after = nanoTime.getAsLong();
+
+        return new Sample(TimeUnit.MILLISECONDS.toNanos(millis), previous + (after - previous) / 2, after - previous);
+    }
+
+    /**
+     * Reading of the system clock at the instant it ticked, bracketed by two readings of the monotonic clock
+     */
+    private static final class Sample {
+        final long epochNanos;
+        final long nanoTime;
+        final long bracketNanos;
+
+        Sample(long epochNanos, long nanoTime, long bracketNanos) {
+            this.epochNanos = epochNanos;
+            this.nanoTime = nanoTime;
+            this.bracketNanos = bracketNanos;
+        }
+    }
+
+    /**
+     * Epoch time at a given instant of the monotonic clock, plus an offset that is spread over the slew duration
+     * following that instant
+     */
+    private static final class Anchor {
+        final long epochNanos;
+        final long nanoTime;
+        final long slewNanos;
+        final long slewDurationNanos;
+
+        Anchor(long epochNanos, long nanoTime, long slewNanos, long slewDurationNanos) {
+            this.epochNanos = epochNanos;
+            this.nanoTime = nanoTime;
+            this.slewNanos = slewNanos;
+            this.slewDurationNanos = slewDurationNanos;
+        }
+
+        long epochNanosAt(long nanoTime) {
+            long elapsed = nanoTime - this.nanoTime;
+            if (elapsed >= slewDurationNanos) {
+                return epochNanos + elapsed + slewNanos;
+            } else if (elapsed <= 0) {
+                return epochNanos + elapsed;
+            }
+            // In floating point, as the product can overflow with long calibration intervals
+            return epochNanos + elapsed + (long) ((double) slewNanos * elapsed / slewDurationNanos);
+        }
+    }
+
+    private static final int CALIBRATION_SAMPLES = 5;
+
+    // A tick bracketed wider than this was preempted, and is not trusted to re-calibrate the clock
+    private static final long MAX_BRACKET_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    // Beyond this error, the system clock was stepped rather than slewed
+    private static final long MAX_SLEW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final Logger log = LoggerFactory.getLogger(EpochClock.class);
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free window that caps the number of outstanding requests of a producer.
+ * <p>
+ * Permits are taken by the producer thread with {@link #tryAcquire()}, which never blocks, and are given back by
+ * whichever thread completes the request. A window with a max size <= 0 is unbounded and only keeps count of the
+ * outstanding requests.
+ */
+public class InFlightWindow {
+
+    private final int maxSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InFlightWindow(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Take a permit if the window is not full.
+     *
+     * @return true if the permit was acquired
+     */
+    public boolean tryAcquire() {
+        if (maxSize <= 0) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxSize) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.annotation.JsonEnumDefaultValue;
+
+/**
+ * How a producer thread waits for the next send to be due
+ */
+public enum PacingStrategy {
+    /**
+     * Park the thread until the send is due. Cheapest on CPU, but the wake-up is only as precise as the OS timer
+     * slack, typically tens of microseconds.
+     */
+    @JsonEnumDefaultValue
+    PARK {
+        @Override
+        public void waitUntil(long deadlineNanos) {
+            long remaining;
+            while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    },
+
+    /**
+     * Yield the CPU in a loop until the send is due. More precise than parking, while still letting other threads
+     * run on the same core.
+     */
+    YIELD {
+        @Override
+        public void waitUntil(long deadlineNanos) {
+            while (deadlineNanos - System.nanoTime() > 0) {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * Busy-spin until the send is due. Hits sub-microsecond gaps, but keeps one core fully busy for each producer
+     * thread, so the number of producer threads should stay below the number of cores.
+     */
+    SPIN {
+        @Override
+        public void waitUntil(long deadlineNanos) {
+            while (deadlineNanos - System.nanoTime() > 0) {
+                // Busy wait
+            }
+        }
+    };
+
+    /**
+     * Wait until the given time, in {@link System#nanoTime()} units
+     */
+    public abstract void waitUntil(long deadlineNanos);
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.List;
+
+/**
+ * Steps of a latency versus throughput sweep. The topics, producers and consumers are created once, and the publish
+ * rate is changed at each step, which is measured after its own warm-up.
+ * <p>
+ * The rates of the steps are either absolute, or fractions of the max sustainable rate of the workload. That max is
+ * the producer rate of the workload when it is set, or else it is discovered before the first step.
+ */
+public class RateSweep {
+
+    /**
+     * Publish rate of each step, in msg/s
+     */
+    public List<Double> rates;
+
+    /**
+     * Publish rate of each step, as a fraction of the max sustainable rate
+     */
+    public List<Double> fractions;
+
+    public int warmupSeconds = 30;
+
+    /**
+     * Measurement window of each step. The stats are collected at each report period of the workload, and the last
+     * period of the window is shortened to end with it.
+     */
+    public int measurementSeconds = 60;
+
+    /**
+     * Time spent searching for the max sustainable rate, when the workload has no producer rate
+     */
+    public int discoverySeconds = 180;
+
+    public void validate() throws IllegalArgumentException {
+        boolean hasRates = rates != null && !rates.isEmpty();
+        boolean hasFractions = fractions != null && !fractions.isEmpty();
+        if (hasRates == hasFractions) {
+            throw new IllegalArgumentException("Rate sweep needs either rates or fractions");
+        }
+
+        if ((hasRates ? rates : fractions).stream().anyMatch(rate -> rate == null || rate <= 0)) {
+            throw new IllegalArgumentException("Rate sweep rates and fractions should be > 0");
+        }
+
+        if (warmupSeconds < 0 || measurementSeconds <= 0 || discoverySeconds <= 0) {
+            throw new IllegalArgumentException(
+                    "Rate sweep should have warmupSeconds >= 0, measurementSeconds > 0 and discoverySeconds > 0");
+        }
+    }
+
+    public int steps() {
+        return rates != null && !rates.isEmpty() ? rates.size() : fractions.size();
+    }
+
+    /**
+     * @param maxRate
+     *            the max sustainable rate of the workload, in msg/s
+     * @return the publish rate of the given step, in msg/s
+     */
+    public double rate(int step, double maxRate) {
+        return rates != null && !rates.isEmpty() ? rates.get(step) : fractions.get(step) * maxRate;
+    }
+
+    public boolean isRelative() {
+        return rates == null || rates.isEmpty();
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Track the sequence numbers received from one producer, to detect lost, duplicated and out-of-order messages.
+ * <p>
+ * The most recent sequences are tracked in a sliding window bitmap, so that checking a message is just a couple of
+ * bit operations. When the window slides forward, the sequences that were never received are moved to a run-length
+ * encoded list of gaps and counted as lost. If one of them arrives later, it is taken out of the gaps and counted as
+ * out-of-order instead, so the lost count is net of late arrivals.
+ * <p>
+ * Memory is bounded: once there are more than {@code maxGaps} gaps, the oldest ones are forgotten and a late arrival
+ * in a forgotten gap is counted as a duplicate. Sequences are expected to start from 0.
+ * <p>
+ * Not thread safe: the sequences must be recorded by one thread at a time.
+ */
+public class SequenceTracker {
+
+    private final long[] window;
+    private final int windowMask;
+
+    // Lowest sequence still tracked in the window
+    private long windowStart = 0;
+    private long highestSequence = -1;
+
+    // Ranges of sequences that left the window without being received, start (inclusive) -> end (exclusive)
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private final int maxGaps;
+
+    private final LongAdder lost;
+    private final LongAdder duplicated;
+    private final LongAdder outOfOrder;
+    private boolean outOfOrderIgnored = false;
+
+    /**
+     * @param windowSize
+     *            number of sequences tracked in the bitmap, rounded up to a power of 2
+     * @param maxGaps
+     *            max number of gaps remembered after they leave the window
+     */
+    public SequenceTracker(int windowSize, int maxGaps, LongAdder lost, LongAdder duplicated,
+            LongAdder outOfOrder) {
+        Preconditions.checkArgument(windowSize >= 64, "Window size must be >= 64");
+        int size = Integer.highestOneBit(windowSize - 1) << 1;
+        this.window = new long[size / 64];
+        this.windowMask = size - 1;
+        this.maxGaps = maxGaps;
+        this.lost = lost;
+        this.duplicated = duplicated;
+        this.outOfOrder = outOfOrder;
+    }
+
+    public void record(long sequence) {
+        if (sequence < windowStart) {
+            recordBelowWindow(sequence);
+            return;
+        }
+
+        long windowSize = windowMask + 1L;
+        if (sequence >= windowStart + windowSize) {
+            slideTo(sequence - windowSize + 1);
+        }
+
+        int index = (int) (sequence & windowMask);
+        long bit = 1L << index;
+        if ((window[index >>> 6] & bit) != 0) {
+            duplicated.increment();
+            return;
+        }
+
+        window[index >>> 6] |= bit;
+        if (sequence < highestSequence) {
+            countOutOfOrder();
+        } else {
+            highestSequence = sequence;
+        }
+    }
+
+    private void recordBelowWindow(long sequence) {
+        Map.Entry<Long, Long> gap = gaps.floorEntry(sequence);
+        if (gap == null || sequence >= gap.getValue()) {
+            duplicated.increment();
+            return;
+        }
+
+        // Late arrival, split the gap around it
+        gaps.remove(gap.getKey());
+        if (gap.getKey() < sequence) {
+            gaps.put(gap.getKey(), sequence);
+        }
+        if (sequence + 1 < gap.getValue()) {
+            gaps.put(sequence + 1, gap.getValue());
+        }
+
+        lost.decrement();
+        countOutOfOrder();
+    }
+
+    /**
+     * Stop counting the out-of-order messages, when the order in which the sequences are recorded is no longer the
+     * order in which they were received. The lost and duplicated messages are still counted.
+     */
+    public void ignoreOutOfOrder() {
+        outOfOrderIgnored = true;
+    }
+
+    private void countOutOfOrder() {
+        if (!outOfOrderIgnored) {
+            outOfOrder.increment();
+        }
+    }
+
+    /**
+     * Move the start of the window forward, recording the sequences that leave the window without having been received
+     */
+    private void slideTo(long newWindowStart) {
+        long windowSize = windowMask + 1L;
+        long evictEnd = Math.min(newWindowStart, windowStart + windowSize);
+
+        for (long sequence = windowStart; sequence < evictEnd; sequence++) {
+            int index = (int) (sequence & windowMask);
+            long bit = 1L << index;
+            if ((window[index >>> 6] & bit) != 0) {
+                window[index >>> 6] &= ~bit;
+            } else {
+                addGap(sequence, sequence + 1);
+            }
+        }
+
+        if (evictEnd < newWindowStart) {
+            // Jumped past the whole window, none of the sequences in between were received
+            addGap(evictEnd, newWindowStart);
+        }
+
+        windowStart = newWindowStart;
+    }
+
+    private void addGap(long start, long end) {
+        lost.add(end - start);
+
+        Map.Entry<Long, Long> last = gaps.lastEntry();
+        if (last != null && last.getValue() == start) {
+            gaps.put(last.getKey(), end);
+            return;
+        }
+
+        gaps.put(start, end);
+        if (gaps.size() > maxGaps) {
+            gaps.pollFirstEntry();
+        }
+    }
+}
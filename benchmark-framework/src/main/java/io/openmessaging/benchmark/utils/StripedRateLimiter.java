@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Rate limiter that splits a target rate evenly across a fixed number of stripes, one for each producer thread.
+ * <p>
+ * Each stripe is owned by a single thread and paces itself against its own slice of the schedule, so the acquire
+ * path only needs a volatile read of the current schedule instead of contending on a shared lock. Changing the rate
+ * publishes a new schedule, which every stripe picks up on its next acquire, or within a millisecond if it is waiting
+ * for a permit of the old schedule, so the rate is re-split across all the threads at once.
+ * <p>
+ * The schedule is open-loop: a stripe that falls behind (eg: because the driver blocked the send call) will send
+ * back-to-back until it has caught up, rather than silently lowering the rate.
+ */
+public class StripedRateLimiter {
+
+    private final Stripe[] stripes;
+
+    private final PacingStrategy pacingStrategy;
+
+    private volatile Schedule schedule;
+
+    public StripedRateLimiter(int numberOfStripes, double rate) {
+        this(numberOfStripes, rate, PacingStrategy.PARK);
+    }
+
+    public StripedRateLimiter(int numberOfStripes, double rate, PacingStrategy pacingStrategy) {
+        Preconditions.checkArgument(numberOfStripes > 0, "Number of stripes must be > 0");
+        this.pacingStrategy = Preconditions.checkNotNull(pacingStrategy);
+
+        this.stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe(this, i);
+        }
+
+        setRate(rate);
+    }
+
+    public int getNumberOfStripes() {
+        return stripes.length;
+    }
+
+    public Stripe getStripe(int index) {
+        return stripes[index];
+    }
+
+    public PacingStrategy getPacingStrategy() {
+        return pacingStrategy;
+    }
+
+    public double getRate() {
+        return schedule.rate;
+    }
+
+    /**
+     * Set the aggregated rate, in permits per second, to be shared by all the stripes
+     */
+    public void setRate(double rate) {
+        Preconditions.checkArgument(rate > 0.0, "Rate must be > 0");
+        schedule = new Schedule(rate, stripes.length, System.nanoTime());
+    }
+
+    /**
+     * Restart the schedule from the current time, dropping any backlog accumulated while the stripes were not
+     * acquiring (eg: when producers are paused).
+     */
+    public void reset() {
+        setRate(schedule.rate);
+    }
+
+    /**
+     * Immutable snapshot of the rate configuration, swapped atomically when the rate changes
+     */
+    private static final class Schedule {
+        final double rate;
+        final double stripeIntervalNanos;
+        final long startTime;
+
+        Schedule(double rate, int numberOfStripes, long startTime) {
+            this.rate = rate;
+            this.stripeIntervalNanos = TimeUnit.SECONDS.toNanos(1) * numberOfStripes / rate;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * A slice of the aggregated rate. A stripe is not thread-safe and must only be used by a single thread.
+     */
+    public static final class Stripe {
+        private final StripedRateLimiter limiter;
+
+        // Stagger the stripes within one interval, so that they don't all fire at the same instant
+        private final double phase;
+
+        private Schedule schedule;
+        private long permits;
+
+        private Stripe(StripedRateLimiter limiter, int index) {
+            this.limiter = limiter;
+            this.phase = index / (double) limiter.stripes.length;
+        }
+
+        /**
+         * Wait until the next permit is due.
+         *
+         * @return the time, in {@link System#nanoTime()} units, at which the permit was scheduled
+         */
+        public long acquire() {
+            while (true) {
+                Schedule current = limiter.schedule;
+                if (current != schedule) {
+                    schedule = current;
+                    permits = 0;
+                }
+
+                long intendedTime = current.startTime + (long) ((permits + phase) * current.stripeIntervalNanos);
+                long now = System.nanoTime();
+                if (intendedTime - now <= 0) {
+                    permits++;
+                    return intendedTime;
+                }
+
+                // Wait in slices, so that a new schedule published during a long wait is picked up right away
+                limiter.pacingStrategy.waitUntil(Math.min(intendedTime, now + SCHEDULE_CHECK_INTERVAL_NANOS));
+            }
+        }
+    }
+
+    // Longest a stripe waits before checking whether the rate was changed
+    private static final long SCHEDULE_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Header that the benchmark framework can write at the start of each payload, so that the consumers can compute the
+ * end-to-end latency and check the sequence of the messages without relying on the timestamps of each driver.
+ * <p>
+ * Layout, in big-endian order:
+ *
+ * <pre>
+ * +-------+-----------------------+------------+----------+
+ * | magic | send time epoch nanos | producerId | sequence |
+ * | int   | long                  | int        | long     |
+ * +-------+-----------------------+------------+----------+
+ * </pre>
+ *
+ * The bytes are read and written in place, without wrapping the payload in a buffer. The header can also be read
+ * from a {@link ByteBuffer} view of a payload, starting at the position of the buffer and whatever its byte order.
+ */
+public final class MessageHeader {
+
+    public static final int MAGIC = 0x4F4D4231; // "OMB1"
+
+    public static final int SIZE = 4 + 8 + 4 + 8;
+
+    public static final int MAX_WORKER_ID = 0xFFFF;
+
+    public static final int MAX_PRODUCER_INDEX = 0xFFFF;
+
+    private static final int SEND_TIME_OFFSET = 4;
+    private static final int PRODUCER_ID_OFFSET = 12;
+    private static final int SEQUENCE_OFFSET = 16;
+
+    private MessageHeader() {
+    }
+
+    /**
+     * Build a producer id that is unique across workers, from the id assigned to the worker by the coordinator and the
+     * index of the producer
+     *
+     * @throws IllegalArgumentException
+     *             if the worker id or the producer index don't fit in the 16 bits they are given
+     */
+    public static int producerId(int workerId, int producerIndex) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id should be between 0 and " + MAX_WORKER_ID);
+        }
+        if (producerIndex < 0 || producerIndex > MAX_PRODUCER_INDEX) {
+            throw new IllegalArgumentException("Producer index should be between 0 and " + MAX_PRODUCER_INDEX);
+        }
+        return (workerId << 16) | producerIndex;
+    }
+
+    public static void write(byte[] payload, long sendTimeEpochNanos, int producerId, long sequence) {
+        putInt(payload, 0, MAGIC);
+        putLong(payload, SEND_TIME_OFFSET, sendTimeEpochNanos);
+        putInt(payload, PRODUCER_ID_OFFSET, producerId);
+        putLong(payload, SEQUENCE_OFFSET, sequence);
+    }
+
+    public static boolean isPresent(byte[] payload) {
+        return payload.length >= SIZE && getInt(payload, 0) == MAGIC;
+    }
+
+    public static long getSendTimeEpochNanos(byte[] payload) {
+        return getLong(payload, SEND_TIME_OFFSET);
+    }
+
+    public static int getProducerId(byte[] payload) {
+        return getInt(payload, PRODUCER_ID_OFFSET);
+    }
+
+    public static long getSequence(byte[] payload) {
+        return getLong(payload, SEQUENCE_OFFSET);
+    }
+
+    public static boolean isPresent(ByteBuffer payload) {
+        return payload.remaining() >= SIZE && getInt(payload, 0) == MAGIC;
+    }
+
+    public static long getSendTimeEpochNanos(ByteBuffer payload) {
+        return getLong(payload, SEND_TIME_OFFSET);
+    }
+
+    public static int getProducerId(ByteBuffer payload) {
+        return getInt(payload, PRODUCER_ID_OFFSET);
+    }
+
+    public static long getSequence(ByteBuffer payload) {
+        return getLong(payload, SEQUENCE_OFFSET);
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static void putLong(byte[] b, int offset, long value) {
+        putInt(b, offset, (int) (value >>> 32));
+        putInt(b, offset + 4, (int) value);
+    }
+
+    private static int getInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16) | ((b[offset + 2] & 0xFF) << 8)
+                | (b[offset + 3] & 0xFF);
+    }
+
+    private static long getLong(byte[] b, int offset) {
+        return ((long) getInt(b, offset) << 32) | (getInt(b, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private static int getInt(ByteBuffer b, int offset) {
+        int index = b.position() + offset;
+        return ((b.get(index) & 0xFF) << 24) | ((b.get(index + 1) & 0xFF) << 16) | ((b.get(index + 2) & 0xFF) << 8)
+                | (b.get(index + 3) & 0xFF);
+    }
+
+    private static long getLong(ByteBuffer b, int offset) {
+        return ((long) getInt(b, offset) << 32) | (getInt(b, offset + 4) & 0xFFFFFFFFL);
+    }
+}
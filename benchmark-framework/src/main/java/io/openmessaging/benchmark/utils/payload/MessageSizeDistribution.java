@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Distribution of the message sizes, used to build a payload pool with a realistic mix of sizes.
+ * <p>
+ * Every sampled size is clamped to the [{@link #minSize}, {@link #maxSize}] range.
+ */
+public class MessageSizeDistribution {
+
+    public enum Type {
+        /**
+         * Sizes evenly spread between minSize and maxSize
+         */
+        UNIFORM,
+
+        /**
+         * Normal distribution with the given mean and standard deviation
+         */
+        NORMAL,
+
+        /**
+         * Log-normal distribution, with the mean and standard deviation expressed in bytes. Useful for long-tailed
+         * traffic with mostly small messages and a few large ones.
+         */
+        LOGNORMAL,
+
+        /**
+         * Mix of small and large messages. A fraction largeSizeFraction of the messages has largeSize bytes and the
+         * rest smallSize bytes, both spread by stdDev if set.
+         */
+        BIMODAL,
+
+        /**
+         * Sizes taken from a histogram file, where each line has a size in bytes and its weight
+         */
+        EMPIRICAL
+    }
+
+    public Type type;
+
+    public int minSize = 1;
+    public int maxSize = 1024 * 1024;
+
+    // NORMAL, LOGNORMAL and BIMODAL
+    public double mean;
+    public double stdDev;
+
+    // BIMODAL
+    public int smallSize;
+    public int largeSize;
+    public double largeSizeFraction;
+
+    // EMPIRICAL, the file is read by the benchmark driver and the histogram is passed along to the workers
+    public String histogramFile;
+    public int[] sizes;
+    public double[] weights;
+
+    public void validate() throws IllegalArgumentException {
+        if (type == null) {
+            throw new IllegalArgumentException("Message size distribution type is missing");
+        }
+
+        if (minSize < 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Message size distribution should have 0 <= minSize <= maxSize");
+        }
+
+        switch (type) {
+        case NORMAL:
+        case LOGNORMAL:
+            if (mean <= 0 || stdDev < 0) {
+                throw new IllegalArgumentException("Message size distribution needs mean > 0 and stdDev >= 0");
+            }
+            break;
+        case BIMODAL:
+            if (largeSizeFraction < 0 || largeSizeFraction > 1) {
+                throw new IllegalArgumentException("Message size distribution largeSizeFraction should be in [0, 1]");
+            }
+            break;
+        case EMPIRICAL:
+            if (histogramFile == null && sizes == null) {
+                throw new IllegalArgumentException("Empirical message size distribution needs a histogram file");
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Load the histogram of an {@link Type#EMPIRICAL} distribution from {@link #histogramFile}.
+     * <p>
+     * Each line contains a size in bytes and its weight, separated by a comma or by whitespace. Empty lines and lines
+     * starting with '#' are ignored.
+     */
+    public void loadHistogram() throws IOException {
+        if (type != Type.EMPIRICAL || histogramFile == null) {
+            return;
+        }
+
+        List<String> lines = Files.readAllLines(new File(histogramFile).toPath(), StandardCharsets.UTF_8);
+        List<Integer> entrySizes = new ArrayList<>();
+        List<Double> entryWeights = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] parts = line.split("[,\\s]+");
+            if (parts.length != 2) {
+                throw new PayloadException("Invalid line in message size histogram: " + line);
+            }
+            entrySizes.add(Integer.parseInt(parts[0]));
+            entryWeights.add(Double.parseDouble(parts[1]));
+        }
+
+        if (entrySizes.isEmpty()) {
+            throw new PayloadException("Message size histogram is empty: " + histogramFile);
+        }
+
+        sizes = entrySizes.stream().mapToInt(Integer::intValue).toArray();
+        weights = entryWeights.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Create a sampler of message sizes. The sampler is not thread-safe.
+     */
+    public IntSupplier sampler(Random random) {
+        switch (type) {
+        case UNIFORM:
+            return () -> minSize + random.nextInt(maxSize - minSize + 1);
+        case NORMAL:
+            return () -> clamp(mean + random.nextGaussian() * stdDev);
+        case LOGNORMAL: {
+            // Derive the parameters of the underlying normal distribution from the mean and variance of the sizes
+            double sigma = Math.sqrt(Math.log(1 + (stdDev * stdDev) / (mean * mean)));
+            double mu = Math.log(mean) - sigma * sigma / 2;
+            return () -> clamp(Math.exp(mu + random.nextGaussian() * sigma));
+        }
+        case BIMODAL:
+            return () -> {
+                int mode = random.nextDouble() < largeSizeFraction ? largeSize : smallSize;
+                return clamp(mode + random.nextGaussian() * stdDev);
+            };
+        case EMPIRICAL: {
+            double[] cumulativeWeights = new double[weights.length];
+            double total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulativeWeights[i] = total;
+            }
+            double totalWeight = total;
+            return () -> {
+                int idx = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * totalWeight);
+                if (idx < 0) {
+                    idx = -idx - 1;
+                }
+                return clamp(sizes[Math.min(idx, sizes.length - 1)]);
+            };
+        }
+        default:
+            throw new IllegalArgumentException("Unknown message size distribution: " + type);
+        }
+    }
+
+    /**
+     * Estimate the mean message size by sampling, so that the clamping to the size range is taken into account
+     */
+    public double estimateMeanSize() {
+        IntSupplier sampler = sampler(new Random(0));
+        long total = 0;
+        for (int i = 0; i < MEAN_ESTIMATE_SAMPLES; i++) {
+            total += sampler.getAsInt();
+        }
+        return total / (double) MEAN_ESTIMATE_SAMPLES;
+    }
+
+    private int clamp(double size) {
+        return (int) Math.max(minSize, Math.min(maxSize, Math.round(size)));
+    }
+
+    private static final int MEAN_ESTIMATE_SAMPLES = 100_000;
+}
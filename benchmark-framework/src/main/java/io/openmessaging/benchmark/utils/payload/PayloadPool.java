@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Fixed set of payloads built before the test starts, which the producers cycle through so that brokers with
+ * compression or de-duplication don't see the same bytes over and over.
+ * <p>
+ * The payloads are never modified once the pool is built, so the same pool can be shared by all the producer
+ * threads, each with its own {@link Cursor}.
+ */
+public class PayloadPool {
+
+    private final byte[][] payloads;
+    private final long totalBytes;
+
+    public PayloadPool(List<byte[]> payloads) {
+        Preconditions.checkArgument(!payloads.isEmpty(), "Payload pool must not be empty");
+        this.payloads = payloads.toArray(new byte[payloads.size()][]);
+
+        long total = 0;
+        for (byte[] payload : this.payloads) {
+            total += payload.length;
+        }
+        this.totalBytes = total;
+    }
+
+    /**
+     * Generate a pool of distinct random payloads, all with the same size
+     */
+    public static PayloadPool generate(int poolSize, int messageSize, RandomPayloadGenerator generator) {
+        return generate(poolSize, () -> messageSize, generator);
+    }
+
+    /**
+     * Generate a pool of distinct random payloads, with the sizes drawn from the given sampler
+     */
+    public static PayloadPool generate(int poolSize, IntSupplier messageSizes, RandomPayloadGenerator generator) {
+        Preconditions.checkArgument(poolSize > 0, "Payload pool size must be > 0");
+
+        List<byte[]> payloads = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            payloads.add(generator.generate(messageSizes.getAsInt()));
+        }
+        return new PayloadPool(payloads);
+    }
+
+    public int size() {
+        return payloads.length;
+    }
+
+    public byte[] get(int index) {
+        return payloads[index];
+    }
+
+    /**
+     * @return the average payload size, in bytes
+     */
+    public double getAverageSize() {
+        return totalBytes / (double) payloads.length;
+    }
+
+    /**
+     * Create a cursor that goes through the pool in a loop starting from the given index. Different threads should
+     * use different starting points so that they don't publish the same payload at the same time.
+     */
+    public Cursor cursor(int startIndex) {
+        return new Cursor(startIndex);
+    }
+
+    /**
+     * Position in the pool. A cursor is not thread-safe and must only be used by a single thread.
+     */
+    public final class Cursor {
+        private int index;
+
+        private Cursor(int startIndex) {
+            this.index = Math.floorMod(startIndex, payloads.length);
+        }
+
+        public byte[] next() {
+            byte[] payload = payloads[index];
+            if (++index == payloads.length) {
+                index = 0;
+            }
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.util.Random;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generate random payloads that compress by approximately a target ratio.
+ * <p>
+ * Each payload is made of fixed-size blocks. The head of every block is filled with random bytes and the tail with a
+ * run of a single byte value, so that a compressor can only squeeze the tail. With a ratio of 1.0 the payloads are
+ * fully random and incompressible.
+ */
+public class RandomPayloadGenerator {
+
+    private static final int BLOCK_SIZE = 128;
+
+    private final Random random;
+    private final int randomBytesPerBlock;
+
+    public RandomPayloadGenerator(double compressionRatio) {
+        this(compressionRatio, new Random());
+    }
+
+    public RandomPayloadGenerator(double compressionRatio, Random random) {
+        Preconditions.checkArgument(compressionRatio >= 1.0, "Compression ratio must be >= 1.0");
+        this.random = random;
+        this.randomBytesPerBlock = Math.max(1, (int) Math.round(BLOCK_SIZE / compressionRatio));
+    }
+
+    public byte[] generate(int size) {
+        byte[] payload = new byte[size];
+        byte[] block = new byte[randomBytesPerBlock];
+        byte filler = (byte) random.nextInt();
+
+        for (int offset = 0; offset < size; offset += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, size - offset);
+            int randomLength = Math.min(randomBytesPerBlock, blockLength);
+
+            random.nextBytes(block);
+            System.arraycopy(block, 0, payload, offset, randomLength);
+            for (int i = randomLength; i < blockLength; i++) {
+                payload[offset + i] = filler;
+            }
+        }
+
+        return payload;
+    }
+}
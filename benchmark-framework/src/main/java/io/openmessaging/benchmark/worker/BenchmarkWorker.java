@@ -18,6 +18,9 @@
  */
 package io.openmessaging.benchmark.worker;
 
+import java.io.File;
+import java.net.InetAddress;
+
 import org.apache.bookkeeper.stats.Stats;
 import org.apache.bookkeeper.stats.StatsProvider;
 import org.apache.bookkeeper.stats.prometheus.PrometheusMetricsProvider;
@@ -49,6 +52,10 @@ public class BenchmarkWorker {
 
         @Parameter(names = { "-sp", "--stats-port" }, description = "Stats port to listen on")
         public int statsPort = 8081;
+
+        @Parameter(names = { "-hl",
+                "--histogram-log" }, description = "Write the interval latency histograms to this HdrHistogram log")
+        public File histogramLog;
     }
 
     public static void main(String[] args) throws Exception {
@@ -83,10 +90,18 @@ public class BenchmarkWorker {
         // Dump configuration variables
         log.info("Starting benchmark with config: {}", writer.writeValueAsString(arguments));
 
-        // Start web server
-        Javalin app = Javalin.start(arguments.httpPort);
+        // Start web server, once all the handlers are registered
+        Javalin app = Javalin.create().port(arguments.httpPort);
+
+        HistogramIntervalLog histogramLog = null;
+        if (arguments.histogramLog != null) {
+            String workerName = InetAddress.getLocalHost().getHostName() + ":" + arguments.httpPort;
+            histogramLog = new HistogramIntervalLog(arguments.histogramLog, workerName);
+            log.info("Writing the interval histograms to {}", arguments.histogramLog);
+        }
 
-        new WorkerHandler(app, provider.getStatsLogger("benchmark"));
+        new WorkerHandler(app, provider.getStatsLogger("benchmark"), histogramLog);
+        app.start();
     }
 
     private static final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
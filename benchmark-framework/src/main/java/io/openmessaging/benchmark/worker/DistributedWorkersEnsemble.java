@@ -27,10 +27,15 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.DataFormatException;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -38,6 +43,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import org.HdrHistogram.Histogram;
 import org.apache.pulsar.common.util.FutureUtil;
 import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.ws.WebSocket;
+import org.asynchttpclient.ws.WebSocketListener;
+import org.asynchttpclient.ws.WebSocketUpgradeHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,12 +58,18 @@ import com.google.common.collect.Lists;
 
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.openmessaging.benchmark.utils.EpochClock;
 import io.openmessaging.benchmark.utils.ListPartition;
+import io.openmessaging.benchmark.utils.payload.MessageHeader;
+import io.openmessaging.benchmark.worker.commands.ClockOffset;
+import io.openmessaging.benchmark.worker.commands.ClockReading;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
 import io.openmessaging.benchmark.worker.commands.PeriodStats;
 import io.openmessaging.benchmark.worker.commands.ProducerWorkAssignment;
+import io.openmessaging.benchmark.worker.commands.TopicStats;
 import io.openmessaging.benchmark.worker.commands.TopicSubscription;
 import io.openmessaging.benchmark.worker.commands.TopicsInfo;
 import static org.asynchttpclient.Dsl.*;
@@ -64,6 +78,10 @@ public class DistributedWorkersEnsemble implements Worker {
 
     private final static int REQUEST_TIMEOUT_MS = 300_000;
     private final static int READ_TIMEOUT_MS = 300_000;
+    // The streamed period stats carry all the histograms in a single binary frame
+    private final static int MAX_STATS_FRAME_SIZE = 64 * 1024 * 1024;
+    // Only the round trip with the shortest time is kept, as it bounds the uncertainty of the offset the most
+    private final static int CLOCK_SYNC_ROUNDS = 10;
     private final List<String> workers;
     private final List<String> producerWorkers;
     private final List<String> consumerWorkers;
@@ -72,8 +90,19 @@ public class DistributedWorkersEnsemble implements Worker {
 
     private int numberOfUsedProducerWorkers;
 
+    private final List<WebSocket> statsStreams = new ArrayList<>();
+
+    private final ExecutorService statsDecodeExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new DefaultThreadFactory("ensemble-stats-decode", true));
+
+    private final EpochClock clock = new EpochClock(10, TimeUnit.SECONDS);
+
+    // Offsets of the clocks of the workers at the last synchronization
+    private volatile Map<String, ClockOffset> clockOffsets = Collections.emptyMap();
+
     public DistributedWorkersEnsemble(List<String> workers) {
         Preconditions.checkArgument(workers.size() > 1);
+        Preconditions.checkArgument(workers.size() <= MessageHeader.MAX_WORKER_ID + 1);
 
         this.workers = workers;
         List<List<String>> partitions = Lists.partition(workers, workers.size() / 2);
@@ -83,13 +112,19 @@ public class DistributedWorkersEnsemble implements Worker {
         log.info("Workers list - producers: {}", producerWorkers);
         log.info("Workers list - consumers: {}", consumerWorkers);
 
-        httpClient = asyncHttpClient(config().setRequestTimeout(REQUEST_TIMEOUT_MS).setReadTimeout(READ_TIMEOUT_MS));
+        httpClient = asyncHttpClient(config().setRequestTimeout(REQUEST_TIMEOUT_MS).setReadTimeout(READ_TIMEOUT_MS)
+                .setWebSocketMaxFrameSize(MAX_STATS_FRAME_SIZE));
     }
 
     @Override
     public void initializeDriver(File configurationFile) throws IOException {
         byte[] confFileContent = Files.readAllBytes(Paths.get(configurationFile.toString()));
-        sendPost(workers, "/initialize-driver", confFileContent);
+        // The index of each worker identifies its producers in the message header, which must be unique
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            futures.add(sendPost(workers.get(i), "/initialize-driver?workerId=" + i, confFileContent));
+        }
+        FutureUtil.waitForAll(futures).join();
     }
 
     @Override
@@ -158,10 +193,31 @@ public class DistributedWorkersEnsemble implements Worker {
     }
 
     @Override
-    public void startLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException {
+    public void prepareLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException {
         // Reduce the publish rate across all the brokers
         producerWorkAssignment.publishRate /= numberOfUsedProducerWorkers;
-        sendPost(producerWorkers, "/start-load", writer.writeValueAsBytes(producerWorkAssignment));
+        sendPost(producerWorkers, "/prepare-load", writer.writeValueAsBytes(producerWorkAssignment));
+    }
+
+    @Override
+    public Map<String, Long> startLoadAt(long startTimeEpochNanos) throws IOException {
+        Map<String, CompletableFuture<Map<String, Long>>> futures = new TreeMap<>();
+        for (String worker : producerWorkers) {
+            // Each worker waits on its own clock, so the start time is translated to it
+            ClockOffset offset = clockOffsets.get(worker);
+            long workerStartTimeEpochNanos = startTimeEpochNanos + (offset != null ? offset.offsetNanos : 0);
+            byte[] body = writer.writeValueAsBytes(workerStartTimeEpochNanos);
+            futures.put(worker, post(worker, "/start-load-at", body, new TypeReference<Map<String, Long>>() {
+            }));
+        }
+
+        FutureUtil.waitForAll(new ArrayList<>(futures.values())).join();
+
+        // Workers without producers don't report any deviation
+        Map<String, Long> startDeviations = new TreeMap<>();
+        futures.forEach((worker, future) -> future.join().values()
+                .forEach(deviation -> startDeviations.put(worker, deviation)));
+        return startDeviations;
     }
 
     @Override
@@ -178,6 +234,7 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void stopAll() {
+        stopStatsStreaming();
         sendPost(workers, "/stop-all", new byte[0]);
     }
 
@@ -193,13 +250,19 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void createConsumers(ConsumerAssignment overallConsumerAssignment) {
-        List<List<TopicSubscription>> subscriptionsPerConsumer = ListPartition
-                .partitionList(overallConsumerAssignment.topicsSubscriptions, consumerWorkers.size());
+        List<List<TopicSubscription>> subscriptionsPerConsumer = overallConsumerAssignment.sequenceTrackingEnabled
+                ? partitionBySubscription(overallConsumerAssignment.topicsSubscriptions, consumerWorkers.size())
+                : ListPartition.partitionList(overallConsumerAssignment.topicsSubscriptions, consumerWorkers.size());
         Map<String, ConsumerAssignment> topicsPerWorkerMap = Maps.newHashMap();
         int i = 0;
         for (List<TopicSubscription> tsl : subscriptionsPerConsumer) {
             ConsumerAssignment individualAssignement = new ConsumerAssignment();
             individualAssignement.topicsSubscriptions = tsl;
+            individualAssignement.messageHeaderEnabled = overallConsumerAssignment.messageHeaderEnabled;
+            individualAssignement.sequenceTrackingEnabled = overallConsumerAssignment.sequenceTrackingEnabled;
+            individualAssignement.consumerWork = overallConsumerAssignment.consumerWork;
+            individualAssignement.topicStatsEnabled = overallConsumerAssignment.topicStatsEnabled;
+            individualAssignement.topicStatsTopK = overallConsumerAssignment.topicStatsTopK;
             topicsPerWorkerMap.put(consumerWorkers.get(i++), individualAssignement);
         }
 
@@ -217,9 +280,138 @@ public class DistributedWorkersEnsemble implements Worker {
         FutureUtil.waitForAll(futures).join();
     }
 
+    /**
+     * Partition the consumers across the workers keeping all the consumers of a subscription on the same worker, so
+     * that a single worker sees every message of the subscription
+     */
+    private static List<List<TopicSubscription>> partitionBySubscription(List<TopicSubscription> topicsSubscriptions,
+            int size) {
+        Map<String, List<TopicSubscription>> consumersPerSubscription = new LinkedHashMap<>();
+        for (TopicSubscription ts : topicsSubscriptions) {
+            consumersPerSubscription.computeIfAbsent(ts.topic + "/" + ts.subscription, x -> new ArrayList<>()).add(ts);
+        }
+
+        return ListPartition.partitionList(new ArrayList<>(consumersPerSubscription.values()), size).stream()
+                .map(groups -> groups.stream().flatMap(List::stream).collect(toList())).collect(toList());
+    }
+
     @Override
     public PeriodStats getPeriodStats() {
-        List<PeriodStats> individualStats = get(workers, "/period-stats", PeriodStats.class);
+        // Decode the stats of each worker as soon as they arrive, in parallel
+        List<CompletableFuture<PeriodStats>> futures = workers.stream()
+                .map(worker -> httpClient.prepareGet(worker + "/period-stats").execute().toCompletableFuture()
+                        .thenApplyAsync(response -> {
+                            if (response.getStatusCode() != 200) {
+                                log.error("Failed to do HTTP get request to {}/period-stats -- code: {}", worker,
+                                        response.getStatusCode());
+                            }
+                            Preconditions.checkArgument(response.getStatusCode() == 200);
+                            try {
+                                return PeriodStatsCodec.decode(response.getResponseBodyAsByteBuffer());
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }, statsDecodeExecutor))
+                .collect(toList());
+
+        FutureUtil.waitForAll(futures).join();
+        return mergePeriodStats(futures.stream().map(CompletableFuture::join).collect(toList()));
+    }
+
+    @Override
+    public synchronized void startStatsStreaming(long intervalMillis, Consumer<PeriodStats> listener) {
+        stopStatsStreaming();
+
+        StatsStreamMerger merger = new StatsStreamMerger(workers.size(), listener);
+        List<CompletableFuture<WebSocket>> futures = workers.stream().map(worker -> {
+            // Have the worker align its periods to the clock of the coordinator, so that they are merged together
+            ClockOffset offset = clockOffsets.get(worker);
+            String url = worker.replaceFirst("^http", "ws") + "/stats-stream?intervalMillis=" + intervalMillis
+                    + "&clockOffsetNanos=" + (offset != null ? offset.offsetNanos : 0);
+            WebSocketUpgradeHandler handler = new WebSocketUpgradeHandler.Builder()
+                    .addWebSocketListener(new WebSocketListener() {
+                        @Override
+                        public void onOpen(WebSocket websocket) {
+                            log.info("Opened the stats stream from {}", worker);
+                        }
+
+                        @Override
+                        public void onClose(WebSocket websocket, int code, String reason) {
+                            log.info("Closed the stats stream from {} -- code: {} reason: {}", worker, code,
+                                    reason);
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            log.warn("Error on the stats stream from {}", worker, t);
+                        }
+
+                        @Override
+                        public void onBinaryFrame(byte[] payload, boolean finalFragment, int rsv) {
+                            try {
+                                merger.add(PeriodStatsCodec.decode(ByteBuffer.wrap(payload)));
+                            } catch (Exception e) {
+                                log.warn("Failed to handle the period stats streamed from {}", worker, e);
+                            }
+                        }
+                    }).build();
+            return httpClient.prepareGet(url).execute(handler).toCompletableFuture()
+                    .thenApply(WebSocket.class::cast);
+        }).collect(toList());
+
+        FutureUtil.waitForAll(futures).join();
+        futures.forEach(future -> statsStreams.add(future.join()));
+    }
+
+    @Override
+    public synchronized void stopStatsStreaming() {
+        statsStreams.forEach(WebSocket::sendCloseFrame);
+        statsStreams.clear();
+    }
+
+    /**
+     * Merge the stats of the same period as they are streamed by the workers. A period is complete once every worker
+     * has sent its stats for it. A worker may skip a period, e.g. when its stats thread is late, so when a period
+     * completes all the older ones are flushed too, with the stats they have.
+     */
+    private static class StatsStreamMerger {
+        private static final int MAX_PENDING_PERIODS = 100;
+
+        private final int numberOfWorkers;
+        private final Consumer<PeriodStats> listener;
+        private final TreeMap<Long, List<PeriodStats>> pending = new TreeMap<>();
+
+        StatsStreamMerger(int numberOfWorkers, Consumer<PeriodStats> listener) {
+            this.numberOfWorkers = numberOfWorkers;
+            this.listener = listener;
+        }
+
+        synchronized void add(PeriodStats stats) {
+            List<PeriodStats> period = pending.computeIfAbsent(stats.timestampMillis, x -> new ArrayList<>());
+            period.add(stats);
+
+            Long flushUpTo = null;
+            if (period.size() >= numberOfWorkers) {
+                flushUpTo = stats.timestampMillis;
+            } else if (pending.size() > MAX_PENDING_PERIODS) {
+                flushUpTo = pending.firstKey();
+                log.warn("Missing stats from {} workers for the period at {}",
+                        numberOfWorkers - pending.firstEntry().getValue().size(), flushUpTo);
+            }
+
+            if (flushUpTo != null) {
+                Map<Long, List<PeriodStats>> completed = pending.headMap(flushUpTo, true);
+                completed.forEach((timestamp, individualStats) -> {
+                    PeriodStats merged = mergePeriodStats(individualStats);
+                    merged.timestampMillis = timestamp;
+                    listener.accept(merged);
+                });
+                completed.clear();
+            }
+        }
+    }
+
+    private static PeriodStats mergePeriodStats(List<PeriodStats> individualStats) {
         PeriodStats stats = new PeriodStats();
         individualStats.forEach(is -> {
             stats.messagesSent += is.messagesSent;
@@ -228,16 +420,42 @@ public class DistributedWorkersEnsemble implements Worker {
             stats.bytesReceived += is.bytesReceived;
             stats.totalMessagesSent += is.totalMessagesSent;
             stats.totalMessagesReceived += is.totalMessagesReceived;
-
-            try {
-                stats.publishLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.publishLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
-
-                stats.endToEndLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.endToEndLatencyBytes), TimeUnit.HOURS.toMicros(12)));
-            } catch (ArrayIndexOutOfBoundsException | DataFormatException e) {
-                throw new RuntimeException(e);
-            }
+            mergeCounters(stats.totalMessagesSentPerTopic, stats.totalMessagesReceivedPerSubscription,
+                    is.totalMessagesSentPerTopic, is.totalMessagesReceivedPerSubscription);
+            stats.publishWindowBlockedTimeMicros += is.publishWindowBlockedTimeMicros;
+            stats.outstandingRequests += is.outstandingRequests;
+            stats.peakOutstandingRequests = Math.max(stats.peakOutstandingRequests, is.peakOutstandingRequests);
+            stats.clockCalibrationErrorMicros = Math.max(stats.clockCalibrationErrorMicros,
+                    is.clockCalibrationErrorMicros);
+            stats.messagesLost += is.messagesLost;
+            stats.messagesDuplicated += is.messagesDuplicated;
+            stats.messagesOutOfOrder += is.messagesOutOfOrder;
+            stats.negativeEndToEndLatencies += is.negativeEndToEndLatencies;
+            stats.gcCount += is.gcCount;
+            stats.gcTimeMillis = Math.max(stats.gcTimeMillis, is.gcTimeMillis);
+            stats.maxPauseMicros = Math.max(stats.maxPauseMicros, is.maxPauseMicros);
+            stats.allocatedBytes += is.allocatedBytes;
+            stats.heapUsedBytes += is.heapUsedBytes;
+            stats.heapCommittedBytes += is.heapCommittedBytes;
+            stats.threadCount += is.threadCount;
+            stats.processCpuTimeMillis += is.processCpuTimeMillis;
+
+            stats.publishLatency.add(is.publishLatency);
+            stats.correctedPublishLatency.add(is.correctedPublishLatency);
+            stats.endToEndLatency.add(is.endToEndLatency);
+            stats.consumerQueueDelay.add(is.consumerQueueDelay);
+
+            // The producers and the consumers of a topic can be on different workers
+            is.topicStats.forEach((topic, its) -> {
+                TopicStats ts = stats.topicStats.computeIfAbsent(topic, x -> new TopicStats());
+                ts.messagesSent += its.messagesSent;
+                ts.bytesSent += its.bytesSent;
+                ts.messagesReceived += its.messagesReceived;
+                ts.bytesReceived += its.bytesReceived;
+                ts.publishLatency.add(its.publishLatency);
+                ts.endToEndLatency.add(its.endToEndLatency);
+                ts.otherTopics += its.otherTopics;
+            });
         });
 
         return stats;
@@ -257,6 +475,14 @@ public class DistributedWorkersEnsemble implements Worker {
                 throw new RuntimeException(e);
             }
 
+            try {
+                stats.correctedPublishLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(is.correctedPublishLatencyBytes), TimeUnit.HOURS.toMicros(12)));
+            } catch (Exception e) {
+                log.error("Failed to decode corrected publish latency");
+                throw new RuntimeException(e);
+            }
+
             try {
                 stats.endToEndLatency.add(Histogram.decodeFromCompressedByteBuffer(
                         ByteBuffer.wrap(is.endToEndLatencyBytes), TimeUnit.HOURS.toMicros(12)));
@@ -265,6 +491,14 @@ public class DistributedWorkersEnsemble implements Worker {
                         ByteBufUtil.prettyHexDump(Unpooled.wrappedBuffer(is.endToEndLatencyBytes)));
                 throw new RuntimeException(e);
             }
+
+            try {
+                stats.consumerQueueDelay.add(Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(is.consumerQueueDelayBytes), TimeUnit.HOURS.toMicros(12)));
+            } catch (Exception e) {
+                log.error("Failed to decode consumer queue delay");
+                throw new RuntimeException(e);
+            }
         });
 
         return stats;
@@ -279,16 +513,82 @@ public class DistributedWorkersEnsemble implements Worker {
         individualStats.forEach(is -> {
             stats.messagesSent += is.messagesSent;
             stats.messagesReceived += is.messagesReceived;
+            mergeCounters(stats.messagesSentPerTopic, stats.messagesReceivedPerSubscription, is.messagesSentPerTopic,
+                    is.messagesReceivedPerSubscription);
         });
 
         return stats;
     }
 
+    /**
+     * Sum the counters of one worker into the totals. The producers of a topic, and the consumers of a subscription,
+     * can be spread across several workers.
+     */
+    private static void mergeCounters(Map<String, Long> sentPerTopic,
+            Map<String, Map<String, Long>> receivedPerSubscription, Map<String, Long> workerSentPerTopic,
+            Map<String, Map<String, Long>> workerReceivedPerSubscription) {
+        workerSentPerTopic.forEach((topic, sent) -> sentPerTopic.merge(topic, sent, Long::sum));
+        workerReceivedPerSubscription.forEach((topic, subscriptions) -> subscriptions
+                .forEach((subscription, received) -> receivedPerSubscription
+                        .computeIfAbsent(topic, x -> new TreeMap<>()).merge(subscription, received, Long::sum)));
+    }
+
     @Override
     public void resetStats() throws IOException {
         sendPost(workers, "/reset-stats", new byte[0]);
     }
 
+    @Override
+    public Map<String, ClockOffset> synchronizeClocks() throws IOException {
+        Map<String, ClockOffset> offsets = new TreeMap<>();
+        Map<Integer, Long> offsetsNanosByWorkerId = new TreeMap<>();
+        for (int workerId = 0; workerId < workers.size(); workerId++) {
+            String worker = workers.get(workerId);
+            ClockSample best = null;
+            for (int i = 0; i < CLOCK_SYNC_ROUNDS; i++) {
+                ClockSample sample = sampleClock(worker).join();
+                if (best == null || sample.roundTripNanos < best.roundTripNanos) {
+                    best = sample;
+                }
+            }
+
+            // Assume the worker read its clock half-way through the round trip
+            ClockOffset offset = new ClockOffset();
+            offset.offsetNanos = best.reading.epochNanos - (best.requestTimeNanos + best.roundTripNanos / 2);
+            offset.uncertaintyNanos = best.roundTripNanos / 2;
+            offsets.put(worker, offset);
+            // Keyed by the worker ids assigned in initializeDriver(), which identify the senders in the message header
+            offsetsNanosByWorkerId.put(workerId, offset.offsetNanos);
+        }
+
+        sendPost(workers, "/clock-offsets", writer.writeValueAsBytes(offsetsNanosByWorkerId));
+        clockOffsets = offsets;
+        return offsets;
+    }
+
+    private CompletableFuture<ClockSample> sampleClock(String worker) {
+        long requestTimeNanos = clock.currentTimeNanos();
+        return httpClient.prepareGet(worker + "/clock").execute().toCompletableFuture().thenApply(response -> {
+            long responseTimeNanos = clock.currentTimeNanos();
+            try {
+                Preconditions.checkArgument(response.getStatusCode() == 200);
+                ClockSample sample = new ClockSample();
+                sample.reading = mapper.readValue(response.getResponseBody(), ClockReading.class);
+                sample.requestTimeNanos = requestTimeNanos;
+                sample.roundTripNanos = responseTimeNanos - requestTimeNanos;
+                return sample;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static class ClockSample {
+        ClockReading reading;
+        long requestTimeNanos;
+        long roundTripNanos;
+    }
+
     /**
      * Send a request to multiple hosts and wait for all responses
      */
@@ -353,7 +653,10 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void close() throws Exception {
+        stopStatsStreaming();
         httpClient.close();
+        statsDecodeExecutor.shutdownNow();
+        clock.close();
     }
 
     private static final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * Writes the interval histograms of a worker to a compressed HdrHistogram log, so that the latency distributions can
+ * be analysed again after the run, over any time window. Each interval histogram is tagged with the worker name and
+ * the kind of latency, e.g. <code>worker-1:8080/publish</code>, and carries the absolute start and end time of the
+ * period. Latencies are in microseconds.
+ */
+public class HistogramIntervalLog implements AutoCloseable {
+
+    public static final String PUBLISH_LATENCY = "publish";
+    public static final String CORRECTED_PUBLISH_LATENCY = "corrected-publish";
+    public static final String END_TO_END_LATENCY = "end-to-end";
+    public static final String CONSUMER_QUEUE_DELAY = "consumer-queue-delay";
+
+    private static final char TAG_SEPARATOR = '/';
+
+    private final String workerName;
+    private final HistogramLogWriter writer;
+
+    public HistogramIntervalLog(File file, String workerName) throws FileNotFoundException {
+        this.workerName = workerName;
+        this.writer = new HistogramLogWriter(file);
+
+        writer.outputLogFormatVersion();
+        writer.outputComment("Interval histograms of worker " + workerName + ", in microseconds");
+        writer.outputStartTime(System.currentTimeMillis());
+        writer.outputLegend();
+    }
+
+    /**
+     * Append the histograms of a period. The histograms are expected to carry the start and end time of the period,
+     * as set by the recorders they come from.
+     */
+    public synchronized void write(PeriodStats stats) {
+        write(PUBLISH_LATENCY, stats.publishLatency);
+        write(CORRECTED_PUBLISH_LATENCY, stats.correctedPublishLatency);
+        write(END_TO_END_LATENCY, stats.endToEndLatency);
+        write(CONSUMER_QUEUE_DELAY, stats.consumerQueueDelay);
+    }
+
+    private void write(String kind, Histogram histogram) {
+        histogram.setTag(workerName + TAG_SEPARATOR + kind);
+        writer.outputIntervalHistogram(histogram);
+    }
+
+    @Override
+    public synchronized void close() {
+        writer.close();
+    }
+
+    /**
+     * @return the kind of latency of a tag written by this log, or the tag itself when it has no worker name
+     */
+    public static String kindOf(String tag) {
+        return tag.substring(tag.lastIndexOf(TAG_SEPARATOR) + 1);
+    }
+}
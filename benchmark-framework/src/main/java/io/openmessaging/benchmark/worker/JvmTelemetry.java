@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * Samples the JVM of a worker, to tell apart the latency spikes caused by the worker itself from the ones caused by
+ * the broker.
+ * <p>
+ * The pauses are caught by a thread that keeps sleeping for 1 ms, and measures how late it wakes up: a stop of the
+ * world, whether for a GC or any other safepoint, delays its wake up by the length of the pause. The other values come
+ * from the platform MXBeans, and are the difference since the previous sample when they are cumulative.
+ */
+final class JvmTelemetry implements AutoCloseable {
+
+    private static final long PAUSE_DETECTOR_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LongAccumulator maxPauseNanos = new LongAccumulator(Long::max, 0);
+    private final Thread pauseDetector;
+
+    // Guarded by this
+    private long lastGcCount;
+    private long lastGcTimeMillis;
+    private long lastProcessCpuTimeNanos;
+    private Map<Long, Long> lastThreadAllocatedBytes = new HashMap<>();
+
+    JvmTelemetry() {
+        pauseDetector = new Thread(this::detectPauses, "local-worker-pause-detector");
+        pauseDetector.setDaemon(true);
+        pauseDetector.start();
+
+        // Only count what happens from now on
+        sample(new PeriodStats());
+    }
+
+    /**
+     * Fill the JVM stats of the period since the previous sample
+     */
+    synchronized void sample(PeriodStats stats) {
+        long gcCount = 0;
+        long gcTimeMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcTimeMillis += Math.max(gc.getCollectionTime(), 0);
+        }
+        stats.gcCount = gcCount - lastGcCount;
+        stats.gcTimeMillis = gcTimeMillis - lastGcTimeMillis;
+        lastGcCount = gcCount;
+        lastGcTimeMillis = gcTimeMillis;
+
+        stats.maxPauseMicros = TimeUnit.NANOSECONDS.toMicros(maxPauseNanos.getThenReset());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        stats.heapUsedBytes = heap.getUsed();
+        stats.heapCommittedBytes = heap.getCommitted();
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        stats.threadCount = threads.getThreadCount();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            stats.allocatedBytes = sampleAllocatedBytes((com.sun.management.ThreadMXBean) threads);
+        }
+
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            long processCpuTimeNanos = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+            stats.processCpuTimeMillis = TimeUnit.NANOSECONDS.toMillis(processCpuTimeNanos - lastProcessCpuTimeNanos);
+            lastProcessCpuTimeNanos = processCpuTimeNanos;
+        }
+    }
+
+    /**
+     * The allocations are only counted per thread, so the ones of the threads that ended since the previous sample are
+     * missed
+     */
+    private long sampleAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+
+        long[] ids = threads.getAllThreadIds();
+        long[] allocatedBytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> threadAllocatedBytes = new HashMap<>(ids.length * 2);
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (allocatedBytes[i] < 0) {
+                // The thread ended in the meantime
+                continue;
+            }
+            threadAllocatedBytes.put(ids[i], allocatedBytes[i]);
+            total += allocatedBytes[i] - lastThreadAllocatedBytes.getOrDefault(ids[i], 0L);
+        }
+        lastThreadAllocatedBytes = threadAllocatedBytes;
+        return total;
+    }
+
+    private void detectPauses() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            try {
+                TimeUnit.NANOSECONDS.sleep(PAUSE_DETECTOR_SLEEP_NANOS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            maxPauseNanos.accumulate(System.nanoTime() - start - PAUSE_DETECTOR_SLEEP_NANOS);
+        }
+    }
+
+    @Override
+    public void close() {
+        pauseDetector.interrupt();
+    }
+}
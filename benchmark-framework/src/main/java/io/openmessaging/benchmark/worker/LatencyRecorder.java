@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.apache.bookkeeper.stats.OpStatsLogger;
+
+/**
+ * Latency histograms of a worker, recorded once per value on the hot path.
+ * <p>
+ * Each recording thread writes into its own {@link SingleWriterRecorder}, so that the threads never contend on a
+ * shared recorder. The values are collected by {@link #snapshot()}, which adds them both to the histogram of the
+ * current period and to the cumulative histogram, and feeds them to the Prometheus stats, off the hot path. The
+ * snapshots are taken periodically by the worker, and the values are also collected whenever the period or cumulative
+ * histograms are read, so that these include every value recorded so far.
+ * <p>
+ * The Prometheus stats are fed from a copy of the collected values, outside the monitor of the recorder, so that
+ * reading the histograms never waits for the values to be replayed one by one into the stats.
+ * <p>
+ * The histograms grow with the range of the recorded values, which keeps the memory of the per-thread recorders in
+ * check.
+ */
+final class LatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 5;
+
+    private final OpStatsLogger opStatsLogger;
+
+    private final List<ThreadRecorder> threadRecorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<SingleWriterRecorder> threadRecorder = ThreadLocal.withInitial(() -> {
+        ThreadRecorder recorder = new ThreadRecorder(Thread.currentThread());
+        threadRecorders.add(recorder);
+        return recorder.recorder;
+    });
+
+    // Guarded by this
+    private final Histogram sample = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram period = newHistogram();
+    private Histogram cumulative = newHistogram();
+    // Collected values not yet fed to the Prometheus stats, null without stats
+    private Histogram unfed;
+
+    /**
+     * @param opStatsLogger the Prometheus stats to feed with the recorded values, or null
+     */
+    LatencyRecorder(OpStatsLogger opStatsLogger) {
+        this.opStatsLogger = opStatsLogger;
+        this.unfed = opStatsLogger != null ? new Histogram(SIGNIFICANT_DIGITS) : null;
+    }
+
+    void record(long micros) {
+        threadRecorder.get().recordValue(micros);
+    }
+
+    /**
+     * Collect the values recorded by all the threads since the last snapshot, and feed them to the Prometheus stats
+     */
+    void snapshot() {
+        Histogram values = collectUnfed();
+        if (values == null) {
+            return;
+        }
+
+        for (HistogramIterationValue value : values.recordedValues()) {
+            for (long i = 0; i < value.getCountAtValueIteratedTo(); i++) {
+                opStatsLogger.registerSuccessfulEvent(value.getValueIteratedTo(), TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    private synchronized Histogram collectUnfed() {
+        collect();
+        if (unfed == null || unfed.getTotalCount() == 0) {
+            return null;
+        }
+        Histogram values = unfed;
+        unfed = new Histogram(SIGNIFICANT_DIGITS);
+        return values;
+    }
+
+    private synchronized void collect() {
+        for (ThreadRecorder recorder : threadRecorders) {
+            recorder.recorder.getIntervalHistogramInto(sample);
+            if (!recorder.owner.isAlive()) {
+                // The last values of the thread have just been collected
+                threadRecorders.remove(recorder);
+            }
+
+            if (sample.getTotalCount() == 0) {
+                continue;
+            }
+
+            period.add(sample);
+            cumulative.add(sample);
+            if (unfed != null) {
+                unfed.add(sample);
+            }
+        }
+    }
+
+    /**
+     * @return the values recorded since the last call, with the start and end time of the period
+     */
+    synchronized Histogram getIntervalHistogram() {
+        collect();
+        Histogram histogram = period;
+        histogram.setEndTimeStamp(System.currentTimeMillis());
+        period = newHistogram();
+        return histogram;
+    }
+
+    /**
+     * @return all the values recorded since the last reset
+     */
+    synchronized Histogram getCumulativeHistogram() {
+        collect();
+        return cumulative.copy();
+    }
+
+    synchronized void reset() {
+        threadRecorders.forEach(recorder -> recorder.recorder.reset());
+        period = newHistogram();
+        cumulative = newHistogram();
+    }
+
+    private static Histogram newHistogram() {
+        Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+        histogram.setStartTimeStamp(System.currentTimeMillis());
+        return histogram;
+    }
+
+    private static final class ThreadRecorder {
+        private final Thread owner;
+        private final SingleWriterRecorder recorder = new SingleWriterRecorder(SIGNIFICANT_DIGITS);
+
+        ThreadRecorder(Thread owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -22,30 +22,44 @@ import static java.util.stream.Collectors.toList;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.Instant;
+import java.nio.ByteBuffer;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.base.Preconditions;
-import com.google.common.util.concurrent.RateLimiter;
 
-import org.HdrHistogram.Recorder;
 import org.apache.bookkeeper.stats.Counter;
 import org.apache.bookkeeper.stats.NullStatsLogger;
-import org.apache.bookkeeper.stats.OpStatsLogger;
 import org.apache.bookkeeper.stats.StatsLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,9 +70,21 @@ import io.openmessaging.benchmark.driver.BenchmarkConsumer;
 import io.openmessaging.benchmark.driver.BenchmarkDriver;
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
 import io.openmessaging.benchmark.driver.ConsumerCallback;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import io.openmessaging.benchmark.utils.ConsumerWork;
+import io.openmessaging.benchmark.utils.EpochClock;
+import io.openmessaging.benchmark.utils.InFlightWindow;
+import io.openmessaging.benchmark.utils.PacingStrategy;
 import io.openmessaging.benchmark.utils.RandomGenerator;
+import io.openmessaging.benchmark.utils.StripedRateLimiter;
 import io.openmessaging.benchmark.utils.Timer;
 import io.openmessaging.benchmark.utils.distributor.KeyDistributor;
+import io.openmessaging.benchmark.utils.payload.MessageHeader;
+import io.openmessaging.benchmark.utils.payload.MessageSizeDistribution;
+import io.openmessaging.benchmark.utils.payload.PayloadPool;
+import io.openmessaging.benchmark.utils.payload.RandomPayloadGenerator;
+import io.openmessaging.benchmark.worker.commands.ClockOffset;
+import io.openmessaging.benchmark.worker.commands.ClockReading;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
@@ -73,9 +99,26 @@ public class LocalWorker implements Worker, ConsumerCallback {
     private List<BenchmarkProducer> producers = new ArrayList<>();
     private List<BenchmarkConsumer> consumers = new ArrayList<>();
 
-    private final RateLimiter rateLimiter = RateLimiter.create(1.0);
+    // Topic and number of messages sent of each producer, in the same order as the producers
+    private final List<String> producerTopics = new ArrayList<>();
+    private final List<LongAdder> producerMessagesSent = new ArrayList<>();
 
-    private final ExecutorService executor = Executors.newCachedThreadPool(new DefaultThreadFactory("local-worker"));
+    // Number of messages received by each subscription, by topic and subscription name
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> subscriptionMessagesReceived =
+            new ConcurrentHashMap<>();
+
+    // Only filled when the stats are broken down by topic
+    private final ConcurrentMap<String, TopicStatsRecorder> topicStats = new ConcurrentHashMap<>();
+
+    // Created when the load is started, with one stripe for each producer thread
+    private volatile StripedRateLimiter rateLimiter = null;
+
+    // Released when the prepared load is started
+    private volatile CountDownLatch loadStartLatch = null;
+
+    // Dedicated threads driving the producers, each producer is always sent from the same thread
+    private final ThreadFactory producerThreadFactory = new DefaultThreadFactory("local-worker-producer");
+    private final List<Thread> producerThreads = new ArrayList<>();
 
     // stats
 
@@ -91,44 +134,111 @@ public class LocalWorker implements Worker, ConsumerCallback {
     private final Counter messagesReceivedCounter;
     private final Counter bytesReceivedCounter;
 
+    private final LongAdder publishWindowBlockedTime = new LongAdder();
+    private final LongAccumulator peakOutstandingRequests = new LongAccumulator(Math::max, 0);
+    private final List<InFlightWindow> inFlightWindows = new CopyOnWriteArrayList<>();
+
+    private final LongAdder messagesLost = new LongAdder();
+    private final LongAdder messagesDuplicated = new LongAdder();
+    private final LongAdder messagesOutOfOrder = new LongAdder();
+    private final LongAdder negativeEndToEndLatencies = new LongAdder();
+    private final List<SequenceRecorder> sequenceRecorders = new CopyOnWriteArrayList<>();
+
     private final LongAdder totalMessagesSent = new LongAdder();
     private final LongAdder totalMessagesReceived = new LongAdder();
 
-    private final Recorder publishLatencyRecorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 5);
-    private final Recorder cumulativePublishLatencyRecorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 5);
-    private final OpStatsLogger publishLatencyStats;
+    // Each latency is recorded once, and the cumulative histograms and the Prometheus stats are built from the
+    // snapshots of the period histograms
+    private final LatencyRecorder publishLatencyRecorder;
+    private final LatencyRecorder correctedPublishLatencyRecorder = new LatencyRecorder(null);
+    private final LatencyRecorder endToEndLatencyRecorder;
+
+    // Time spent by the received messages waiting for a consumer work thread
+    private final LatencyRecorder consumerQueueDelayRecorder = new LatencyRecorder(null);
+
+    private final ScheduledExecutorService latencySnapshotExecutor = Executors
+            .newSingleThreadScheduledExecutor(new DefaultThreadFactory("local-worker-latency-snapshot", true));
+
+    private final JvmTelemetry jvmTelemetry = new JvmTelemetry();
+
+    private volatile ConsumerWork consumerWork = null;
+    private volatile ExecutorService consumerWorkExecutor = null;
+
+    private ScheduledExecutorService statsStreamingExecutor = null;
+
+    private final HistogramIntervalLog histogramLog;
+
+    // Source of the wall-clock time for the end-to-end latency
+    private final EpochClock epochClock = new EpochClock(10, TimeUnit.SECONDS);
 
-    private final Recorder endToEndLatencyRecorder = new Recorder(TimeUnit.HOURS.toMicros(12), 5);
-    private final Recorder endToEndCumulativeLatencyRecorder = new Recorder(TimeUnit.HOURS.toMicros(12), 5);
-    private final OpStatsLogger endToEndLatencyStats;
+    private volatile boolean testCompleted = false;
 
-    private boolean testCompleted = false;
+    // Only used for the drivers that can't pause their consumers, whose callback threads are then held here
+    private volatile boolean consumersArePaused = false;
+    private final Object consumersPauseLock = new Object();
 
-    private boolean consumersArePaused = false;
+    private volatile boolean producersArePaused = false;
 
-    private boolean producersArePaused = false;
+    // Whether the consumers should read the send time from the message header
+    private volatile boolean messageHeaderEnabled = false;
+
+    // Identifies the producers of this worker in the message header, assigned by the coordinator to be unique across
+    // the workers of the test
+    private volatile int workerId = 0;
+
+    // Number of busiest and of slowest topics kept in the period stats, the other topics are merged
+    private volatile int topicStatsTopK = 0;
+
+    // Correction of the send time in the message header, by the id of the worker that sent the message, so that it
+    // reads on the clock of this worker. Indexed by the worker ids assigned by the coordinator, to avoid boxing on the
+    // receive path.
+    private volatile long[] sendTimeCorrectionsNanos = null;
 
     public LocalWorker() {
         this(NullStatsLogger.INSTANCE);
     }
 
     public LocalWorker(StatsLogger statsLogger) {
+        this(statsLogger, null);
+    }
+
+    /**
+     * @param histogramLog where to write the interval histograms of each period, or null to not keep them
+     */
+    public LocalWorker(StatsLogger statsLogger, HistogramIntervalLog histogramLog) {
         this.statsLogger = statsLogger;
+        this.histogramLog = histogramLog;
 
         StatsLogger producerStatsLogger = statsLogger.scope("producer");
         this.messagesSentCounter = producerStatsLogger.getCounter("messages_sent");
         this.bytesSentCounter = producerStatsLogger.getCounter("bytes_sent");
-        this.publishLatencyStats = producerStatsLogger.getOpStatsLogger("produce_latency");
+        this.publishLatencyRecorder = new LatencyRecorder(producerStatsLogger.getOpStatsLogger("produce_latency"));
 
         StatsLogger consumerStatsLogger = statsLogger.scope("consumer");
         this.messagesReceivedCounter = consumerStatsLogger.getCounter("messages_recv");
         this.bytesReceivedCounter = consumerStatsLogger.getCounter("bytes_recv");
-        this.endToEndLatencyStats = consumerStatsLogger.getOpStatsLogger("e2e_latency");
+        this.endToEndLatencyRecorder = new LatencyRecorder(consumerStatsLogger.getOpStatsLogger("e2e_latency"));
+
+        latencySnapshotExecutor.scheduleAtFixedRate(this::snapshotLatencies, LATENCY_SNAPSHOT_INTERVAL_MILLIS,
+                LATENCY_SNAPSHOT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void initializeDriver(File driverConfigFile) throws IOException {
+        initializeDriver(driverConfigFile, 0);
+    }
+
+    /**
+     * @param workerId
+     *            the id of this worker among the workers of the test, which identifies its producers in the message
+     *            header
+     */
+    public void initializeDriver(File driverConfigFile, int workerId) throws IOException {
         Preconditions.checkArgument(benchmarkDriver == null);
+        if (workerId < 0 || workerId > MessageHeader.MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id should be between 0 and " + MessageHeader.MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
         testCompleted = false;
 
         DriverConfiguration driverConfiguration = mapper.readValue(driverConfigFile, DriverConfiguration.class);
@@ -184,15 +294,31 @@ public class LocalWorker implements Worker, ConsumerCallback {
                 .map(topic -> benchmarkDriver.createProducer(topic)).collect(toList());
 
         futures.forEach(f -> producers.add(f.join()));
+        producerTopics.addAll(topics);
+        topics.forEach(topic -> producerMessagesSent.add(new LongAdder()));
         log.info("Created {} producers in {} ms", producers.size(), timer.elapsedMillis());
     }
 
     @Override
     public void createConsumers(ConsumerAssignment consumerAssignment) {
         Timer timer = new Timer();
+        messageHeaderEnabled = consumerAssignment.messageHeaderEnabled;
+        topicStatsTopK = consumerAssignment.topicStatsTopK;
+        startConsumerWork(consumerAssignment.consumerWork);
 
+        // Each subscription gets its own callback so the messages can be told apart, to count them, track their
+        // sequence or break down the stats by topic
+        Map<String, ConsumerCallback> callbacks = new HashMap<>();
         List<CompletableFuture<BenchmarkConsumer>> futures = consumerAssignment.topicsSubscriptions.stream()
-                .map(ts -> benchmarkDriver.createConsumer(ts.topic, ts.subscription, Optional.of(ts.partition), this))
+                .map(ts -> benchmarkDriver.createConsumer(ts.topic, ts.subscription, Optional.of(ts.partition),
+                        callbacks.computeIfAbsent(ts.topic + "/" + ts.subscription,
+                                x -> new SubscriptionCallback(
+                                        subscriptionMessagesReceived
+                                                .computeIfAbsent(ts.topic, t -> new ConcurrentHashMap<>())
+                                                .computeIfAbsent(ts.subscription, s -> new LongAdder()),
+                                        consumerAssignment.sequenceTrackingEnabled,
+                                        consumerAssignment.topicStatsEnabled ? topicStatsRecorder(ts.topic)
+                                                : null))))
                 .collect(toList());
 
         futures.forEach(f -> consumers.add(f.join()));
@@ -200,34 +326,131 @@ public class LocalWorker implements Worker, ConsumerCallback {
     }
 
     @Override
-    public void startLoad(ProducerWorkAssignment producerWorkAssignment) {
-        int processors = Runtime.getRuntime().availableProcessors();
+    public void prepareLoad(ProducerWorkAssignment producerWorkAssignment) {
+        if (producers.isEmpty()) {
+            log.info("No producers assigned to this worker");
+            return;
+        }
+
+        topicStatsTopK = producerWorkAssignment.topicStatsTopK;
 
-        rateLimiter.setRate(producerWorkAssignment.publishRate);
+        int numberOfThreads = producerWorkAssignment.producerThreads > 0 ? producerWorkAssignment.producerThreads
+                : Runtime.getRuntime().availableProcessors();
 
-        Map<Integer, List<BenchmarkProducer>> processorAssignemnt = new TreeMap<>();
+        Map<Integer, List<BenchmarkProducer>> threadAssignment = new TreeMap<>();
 
-        int processorIdx = 0;
+        int threadIdx = 0;
         for (BenchmarkProducer p : producers) {
-            processorAssignemnt.computeIfAbsent(processorIdx, x -> new ArrayList<BenchmarkProducer>()).add(p);
+            threadAssignment.computeIfAbsent(threadIdx, x -> new ArrayList<BenchmarkProducer>()).add(p);
 
-            processorIdx = (processorIdx + 1) % processors;
+            threadIdx = (threadIdx + 1) % numberOfThreads;
         }
 
-        processorAssignemnt.values().forEach(producers -> submitProducersToExecutor(producers,
-                KeyDistributor.build(producerWorkAssignment.keyDistributorType), producerWorkAssignment.payloadData));
+        PacingStrategy pacingStrategy = producerWorkAssignment.pacingStrategy != null
+                ? producerWorkAssignment.pacingStrategy
+                : PacingStrategy.PARK;
+        StripedRateLimiter limiter = new StripedRateLimiter(threadAssignment.size(),
+                Math.max(producerWorkAssignment.publishRate, 1.0), pacingStrategy);
+        rateLimiter = limiter;
+
+        log.info("Preparing {} producers on {} threads with {} pacing", producers.size(), threadAssignment.size(),
+                pacingStrategy);
+
+        PayloadPool payloadPool = buildPayloadPool(producerWorkAssignment);
+
+        // The producer threads are started right away, but wait on the latch until the load is started
+        CountDownLatch startLatch = new CountDownLatch(1);
+        loadStartLatch = startLatch;
+
+        int stripeIdx = 0;
+        for (List<BenchmarkProducer> producers : threadAssignment.values()) {
+            // Start each thread at a different point of the pool, so they don't all send the same payload at once
+            PayloadPool.Cursor payloads = payloadPool.cursor(stripeIdx * payloadPool.size() / threadAssignment.size());
+            startProducerThread(producers, limiter.getStripe(stripeIdx++),
+                    KeyDistributor.build(producerWorkAssignment.keyDistributorType),
+                    payloads, producerWorkAssignment.maxOutstandingRequests,
+                    Math.max(producerWorkAssignment.batchSize, 1), producerWorkAssignment.messageHeaderEnabled,
+                    producerWorkAssignment.topicStatsEnabled, startLatch);
+        }
+    }
+
+    @Override
+    public Map<String, Long> startLoadAt(long startTimeEpochNanos) {
+        CountDownLatch startLatch = loadStartLatch;
+        if (startLatch == null) {
+            // No producers were prepared on this worker
+            return Collections.emptyMap();
+        }
+
+        long delayNanos = startTimeEpochNanos - currentTimeEpochNanos();
+        if (delayNanos > 0) {
+            PacingStrategy.PARK.waitUntil(System.nanoTime() + delayNanos);
+        }
+
+        // Start the schedule from now, so that the time spent waiting isn't seen as a backlog of sends
+        rateLimiter.reset();
+        startLatch.countDown();
+        loadStartLatch = null;
+
+        long startDeviationMicros = TimeUnit.NANOSECONDS.toMicros(currentTimeEpochNanos() - startTimeEpochNanos);
+        log.info("Started load {} us from the target start time", startDeviationMicros);
+        return Collections.singletonMap(LOCAL_WORKER_NAME, startDeviationMicros);
+    }
+
+    private static PayloadPool buildPayloadPool(ProducerWorkAssignment producerWorkAssignment) {
+        if (producerWorkAssignment.payloadPoolSize <= 0) {
+            return new PayloadPool(Collections.singletonList(producerWorkAssignment.payloadData));
+        }
+
+        Timer timer = new Timer();
+        MessageSizeDistribution sizeDistribution = producerWorkAssignment.messageSizeDistribution;
+        IntSupplier messageSizes = sizeDistribution != null ? sizeDistribution.sampler(new Random())
+                : () -> producerWorkAssignment.messageSize;
+        PayloadPool payloadPool = PayloadPool.generate(producerWorkAssignment.payloadPoolSize, messageSizes,
+                new RandomPayloadGenerator(producerWorkAssignment.payloadCompressionRatio));
+        log.info("Generated {} payloads with average size {} and compression ratio {} in {} ms", payloadPool.size(),
+                (long) payloadPool.getAverageSize(), producerWorkAssignment.payloadCompressionRatio,
+                timer.elapsedMillis());
+        return payloadPool;
     }
 
     @Override
     public void probeProducers() throws IOException {
-        producers.forEach(producer -> producer.sendAsync(Optional.of("key"), new byte[10])
-                .thenRun(() -> totalMessagesSent.increment()));
+        for (int i = 0; i < producers.size(); i++) {
+            LongAdder messagesSent = producerMessagesSent.get(i);
+            producers.get(i).sendAsync(Optional.of("key"), new byte[10]).thenRun(() -> {
+                totalMessagesSent.increment();
+                messagesSent.increment();
+            });
+        }
     }
 
-    private void submitProducersToExecutor(List<BenchmarkProducer> producers, KeyDistributor keyDistributor,
-            byte[] payloadData) {
-        executor.submit(() -> {
+    private void startProducerThread(List<BenchmarkProducer> producers,
+            StripedRateLimiter.Stripe threadRateLimiter, KeyDistributor keyDistributor, PayloadPool.Cursor payloadCursor,
+            int maxOutstandingRequests, int batchSize, boolean messageHeaderEnabled, boolean topicStatsEnabled,
+            CountDownLatch startLatch) {
+        InFlightWindow[] windows = new InFlightWindow[producers.size()];
+        SendCompletionListener[] listeners = new SendCompletionListener[producers.size()];
+        int[] producerIds = new int[producers.size()];
+        long[] sequences = new long[producers.size()];
+        for (int i = 0; i < windows.length; i++) {
+            int producerIndex = this.producers.indexOf(producers.get(i));
+            windows[i] = new InFlightWindow(maxOutstandingRequests);
+            listeners[i] = new ProducerSendListener(windows[i], producerMessagesSent.get(producerIndex),
+                    topicStatsEnabled ? topicStatsRecorder(producerTopics.get(producerIndex)) : null);
+            inFlightWindows.add(windows[i]);
+            producerIds[i] = MessageHeader.producerId(workerId, producerIndex);
+        }
+
+        // Reused for every batch sent from this thread, the drivers don't keep references to them
+        String[] keys = new String[batchSize];
+        byte[][] payloads = new byte[batchSize][];
+        long[] intendedSendTimes = new long[batchSize];
+
+        Thread thread = producerThreadFactory.newThread(() -> {
             try {
+                startLatch.await();
+
                 while (!testCompleted) {
                     while (producersArePaused) {
                         try {
@@ -237,39 +460,153 @@ public class LocalWorker implements Worker, ConsumerCallback {
                         }
                     }
 
-                    producers.forEach(producer -> {
-                        rateLimiter.acquire();
-                        final long sendTime = System.nanoTime();
-                        producer.sendAsync(Optional.ofNullable(keyDistributor.next()), payloadData).thenRun(() -> {
-                            messagesSent.increment();
-                            totalMessagesSent.increment();
-                            messagesSentCounter.inc();
-                            bytesSent.add(payloadData.length);
-                            bytesSentCounter.add(payloadData.length);
-
-                            long microTime = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendTime);
-                            publishLatencyRecorder.recordValue(microTime);
-                            cumulativePublishLatencyRecorder.recordValue(microTime);
-                            publishLatencyStats.registerSuccessfulEvent(microTime, TimeUnit.MICROSECONDS);
-                        }).exceptionally(ex -> {
-                            log.warn("Write error on message", ex);
-                            return null;
-                        });
-                    });
+                    for (int i = 0; i < producers.size(); i++) {
+                        if (batchSize == 1) {
+                            // Keep track of when the message was due, so that the corrected latency includes any
+                            // time the send was delayed by a stall in the driver or in the worker itself
+                            long intendedSendTime = threadRateLimiter.acquire();
+                            if (!acquireWindowPermit(windows[i])) {
+                                break;
+                            }
+
+                            byte[] payload = payloadCursor.next();
+                            if (messageHeaderEnabled) {
+                                payload = withHeader(payload, producerIds[i], sequences[i]++);
+                            }
+
+                            producers.get(i).sendAsync(keyDistributor.next(), payload, System.nanoTime(),
+                                    intendedSendTime, listeners[i]);
+                            continue;
+                        }
+
+                        // Each message of the batch still waits for its own slot in the rate schedule, so the
+                        // time spent filling the batch shows up in the corrected latency
+                        int count = 0;
+                        while (count < batchSize) {
+                            intendedSendTimes[count] = threadRateLimiter.acquire();
+                            if (!acquireWindowPermit(windows[i])) {
+                                break;
+                            }
+                            keys[count] = keyDistributor.next();
+                            payloads[count++] = messageHeaderEnabled
+                                    ? withHeader(payloadCursor.next(), producerIds[i], sequences[i]++)
+                                    : payloadCursor.next();
+                        }
+                        if (count < batchSize) {
+                            break;
+                        }
+
+                        producers.get(i).sendBatchAsync(keys, payloads, intendedSendTimes, count, System.nanoTime(),
+                                listeners[i]);
+                    }
                 }
             } catch (Throwable t) {
                 log.error("Got error", t);
             }
         });
+        producerThreads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Copy the payload and write the message header at its start. The pooled payloads are shared by all the messages,
+     * and the drivers may hold on to the array until the send completes, so the header can't be written in place.
+     * Payloads shorter than the header are padded to the header size.
+     */
+    private byte[] withHeader(byte[] payload, int producerId, long sequence) {
+        byte[] message = Arrays.copyOf(payload, Math.max(payload.length, MessageHeader.SIZE));
+        MessageHeader.write(message, currentTimeEpochNanos(), producerId, sequence);
+        return message;
+    }
+
+    private long currentTimeEpochNanos() {
+        return epochClock.currentTimeNanos();
+    }
+
+    /**
+     * Completion listener shared by all the messages of one producer, so that tracking the acknowledgements does
+     * not allocate anything per message
+     */
+    private final class ProducerSendListener implements SendCompletionListener {
+        private final InFlightWindow window;
+        private final LongAdder producerMessagesSent;
+
+        // Null when the stats are not broken down by topic
+        private final TopicStatsRecorder topicStats;
+
+        ProducerSendListener(InFlightWindow window, LongAdder producerMessagesSent, TopicStatsRecorder topicStats) {
+            this.window = window;
+            this.producerMessagesSent = producerMessagesSent;
+            this.topicStats = topicStats;
+        }
+
+        @Override
+        public void sendCompleted(long sendTime, long intendedSendTime, int payloadSize) {
+            window.release();
+
+            messagesSent.increment();
+            totalMessagesSent.increment();
+            producerMessagesSent.increment();
+            messagesSentCounter.inc();
+            bytesSent.add(payloadSize);
+            bytesSentCounter.add(payloadSize);
+
+            long now = System.nanoTime();
+            long microTime = TimeUnit.NANOSECONDS.toMicros(now - sendTime);
+            publishLatencyRecorder.record(microTime);
+            if (topicStats != null) {
+                topicStats.messageSent(payloadSize, microTime);
+            }
+
+            long correctedMicroTime = TimeUnit.NANOSECONDS.toMicros(now - intendedSendTime);
+            correctedPublishLatencyRecorder.record(correctedMicroTime);
+        }
+
+        @Override
+        public void sendFailed(Throwable cause) {
+            window.release();
+            log.warn("Write error on message", cause);
+        }
+    }
+
+    private TopicStatsRecorder topicStatsRecorder(String topic) {
+        return topicStats.computeIfAbsent(topic, x -> new TopicStatsRecorder());
+    }
+
+    /**
+     * Wait for the producer window to have room for one more request, without blocking on a lock.
+     *
+     * @return false if the test was completed while waiting
+     */
+    private boolean acquireWindowPermit(InFlightWindow window) {
+        if (!window.tryAcquire()) {
+            long blockedSince = System.nanoTime();
+            while (!window.tryAcquire()) {
+                if (testCompleted) {
+                    return false;
+                }
+                LockSupport.parkNanos(WINDOW_WAIT_NANOS);
+            }
+            publishWindowBlockedTime.add(System.nanoTime() - blockedSince);
+        }
+
+        peakOutstandingRequests.accumulate(window.getInFlight());
+        return true;
     }
 
     @Override
     public void adjustPublishRate(double publishRate) {
+        StripedRateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            // Load was not started on this worker
+            return;
+        }
+
         if (publishRate < 1.0) {
-            rateLimiter.setRate(1.0);
+            limiter.setRate(1.0);
             return;
         }
-        rateLimiter.setRate(publishRate);
+        limiter.setRate(publishRate);
     }
 
     @Override
@@ -284,17 +621,55 @@ public class LocalWorker implements Worker, ConsumerCallback {
 
         stats.totalMessagesSent = totalMessagesSent.sum();
         stats.totalMessagesReceived = totalMessagesReceived.sum();
+        stats.totalMessagesSentPerTopic = messagesSentPerTopic();
+        stats.totalMessagesReceivedPerSubscription = messagesReceivedPerSubscription();
+
+        stats.publishWindowBlockedTimeMicros = TimeUnit.NANOSECONDS.toMicros(publishWindowBlockedTime.sumThenReset());
+        stats.outstandingRequests = inFlightWindows.stream().mapToLong(InFlightWindow::getInFlight).sum();
+        stats.peakOutstandingRequests = peakOutstandingRequests.getThenReset();
+
+        stats.clockCalibrationErrorMicros = TimeUnit.NANOSECONDS.toMicros(epochClock.getLastCalibrationErrorNanos());
+
+        sequenceRecorders.forEach(SequenceRecorder::drain);
+        stats.messagesLost = messagesLost.sumThenReset();
+        stats.messagesDuplicated = messagesDuplicated.sumThenReset();
+        stats.messagesOutOfOrder = messagesOutOfOrder.sumThenReset();
+        stats.negativeEndToEndLatencies = negativeEndToEndLatencies.sumThenReset();
+
+        jvmTelemetry.sample(stats);
 
         stats.publishLatency = publishLatencyRecorder.getIntervalHistogram();
+        stats.correctedPublishLatency = correctedPublishLatencyRecorder.getIntervalHistogram();
         stats.endToEndLatency = endToEndLatencyRecorder.getIntervalHistogram();
+        stats.consumerQueueDelay = consumerQueueDelayRecorder.getIntervalHistogram();
+        topicStats.forEach((topic, recorder) -> stats.topicStats.put(topic, recorder.getPeriodStats()));
+        TopicStatsRecorder.keepTopK(stats.topicStats, topicStatsTopK);
+
+        if (histogramLog != null) {
+            histogramLog.write(stats);
+        }
         return stats;
     }
 
+    private void snapshotLatencies() {
+        try {
+            publishLatencyRecorder.snapshot();
+            correctedPublishLatencyRecorder.snapshot();
+            endToEndLatencyRecorder.snapshot();
+            consumerQueueDelayRecorder.snapshot();
+            sequenceRecorders.forEach(SequenceRecorder::drain);
+        } catch (Throwable t) {
+            log.warn("Failed to snapshot the latencies", t);
+        }
+    }
+
     @Override
     public CumulativeLatencies getCumulativeLatencies() {
         CumulativeLatencies latencies = new CumulativeLatencies();
-        latencies.publishLatency = cumulativePublishLatencyRecorder.getIntervalHistogram();
-        latencies.endToEndLatency = endToEndCumulativeLatencyRecorder.getIntervalHistogram();
+        latencies.publishLatency = publishLatencyRecorder.getCumulativeHistogram();
+        latencies.correctedPublishLatency = correctedPublishLatencyRecorder.getCumulativeHistogram();
+        latencies.endToEndLatency = endToEndLatencyRecorder.getCumulativeHistogram();
+        latencies.consumerQueueDelay = consumerQueueDelayRecorder.getCumulativeHistogram();
         return latencies;
     }
 
@@ -303,67 +678,409 @@ public class LocalWorker implements Worker, ConsumerCallback {
         CountersStats stats = new CountersStats();
         stats.messagesSent = totalMessagesSent.sum();
         stats.messagesReceived = totalMessagesReceived.sum();
+        stats.messagesSentPerTopic = messagesSentPerTopic();
+        stats.messagesReceivedPerSubscription = messagesReceivedPerSubscription();
         return stats;
     }
 
+    private Map<String, Long> messagesSentPerTopic() {
+        Map<String, Long> sent = new TreeMap<>();
+        for (int i = 0; i < producerTopics.size(); i++) {
+            sent.merge(producerTopics.get(i), producerMessagesSent.get(i).sum(), Long::sum);
+        }
+        return sent;
+    }
+
+    private Map<String, Map<String, Long>> messagesReceivedPerSubscription() {
+        Map<String, Map<String, Long>> received = new TreeMap<>();
+        subscriptionMessagesReceived.forEach((topic, subscriptions) -> subscriptions.forEach(
+                (subscription, count) -> received.computeIfAbsent(topic, x -> new TreeMap<>()).put(subscription,
+                        count.sum())));
+        return received;
+    }
+
     @Override
     public void messageReceived(byte[] data, long publishTimestamp) {
+        received(data.length, sendTimeNanos(data, publishTimestamp), null);
+    }
+
+    @Override
+    public void messageReceived(int size, ByteBuffer payload, long publishTimestamp) {
+        received(size, sendTimeNanos(payload, publishTimestamp), null);
+    }
+
+    /**
+     * The payloads are only read to get the framework header
+     */
+    @Override
+    public boolean needsPayload() {
+        return messageHeaderEnabled;
+    }
+
+    @Override
+    public void messagesReceived(byte[][] payloads, int[] sizes, long[] publishTimestamps, int count) {
+        receivedBatch(payloads, sizes, publishTimestamps, count, null);
+    }
+
+    private void received(int size, long sendTimeNanos, TopicStatsRecorder topicStats) {
         messagesReceived.increment();
         totalMessagesReceived.increment();
         messagesReceivedCounter.inc();
-        bytesReceived.add(data.length);
-        bytesReceivedCounter.add(data.length);
+        bytesReceived.add(size);
+        bytesReceivedCounter.add(size);
 
-        // NOTE: PublishTimestamp is expected to be using the wall-clock time across
+        long endToEndLatencyMicros = recordEndToEndLatency(sendTimeNanos, currentTimeEpochNanos());
+        if (topicStats != null) {
+            topicStats.messageReceived(size, endToEndLatencyMicros);
+        }
+
+        afterMessagesReceived(1);
+    }
+
+    private void receivedBatch(byte[][] payloads, int[] sizes, long[] publishTimestamps, int count,
+            TopicStatsRecorder topicStats) {
+        long batchBytes = 0;
+        for (int i = 0; i < count; i++) {
+            batchBytes += sizes[i];
+        }
+
+        messagesReceived.add(count);
+        totalMessagesReceived.add(count);
+        messagesReceivedCounter.add(count);
+        bytesReceived.add(batchBytes);
+        bytesReceivedCounter.add(batchBytes);
+
+        // The whole batch was received at the same time
+        long receiveTimeNanos = currentTimeEpochNanos();
+        for (int i = 0; i < count; i++) {
+            long endToEndLatencyMicros = recordEndToEndLatency(sendTimeNanos(payloads[i], publishTimestamps[i]),
+                    receiveTimeNanos);
+            if (topicStats != null) {
+                topicStats.messageReceived(sizes[i], endToEndLatencyMicros);
+            }
+        }
+
+        afterMessagesReceived(count);
+    }
+
+    /**
+     * The framework timestamp has a nanosecond resolution, while the drivers mostly use milliseconds
+     */
+    private long sendTimeNanos(byte[] data, long publishTimestamp) {
+        if (messageHeaderEnabled && data != null && MessageHeader.isPresent(data)) {
+            return correctedSendTimeNanos(MessageHeader.getSendTimeEpochNanos(data), MessageHeader.getProducerId(data));
+        }
+        return publishTimestamp;
+    }
+
+    private long sendTimeNanos(ByteBuffer payload, long publishTimestamp) {
+        if (messageHeaderEnabled && payload != null && MessageHeader.isPresent(payload)) {
+            return correctedSendTimeNanos(MessageHeader.getSendTimeEpochNanos(payload),
+                    MessageHeader.getProducerId(payload));
+        }
+        return publishTimestamp;
+    }
+
+    /**
+     * @return the send time of a message converted to the clock of this worker, from the offset of the clock of the
+     *         worker that sent it
+     */
+    private long correctedSendTimeNanos(long sendTimeNanos, int producerId) {
+        long[] corrections = sendTimeCorrectionsNanos;
+        int senderWorkerId = producerId >>> 16;
+        return corrections != null && senderWorkerId < corrections.length
+                ? sendTimeNanos + corrections[senderWorkerId]
+                : sendTimeNanos;
+    }
+
+    private long recordEndToEndLatency(long sendTimeNanos, long receiveTimeNanos) {
+        // NOTE: Without a message header, the publish timestamp is expected to be using the wall-clock time across
         // machines
-        Instant currentTime = Instant.now();
-        long currentTimeNanos = TimeUnit.SECONDS.toNanos(currentTime.getEpochSecond()) + currentTime.getNano();
-        long endToEndLatencyMicros = TimeUnit.NANOSECONDS.toMicros(currentTimeNanos - publishTimestamp);
+        long endToEndLatencyMicros = TimeUnit.NANOSECONDS.toMicros(receiveTimeNanos - sendTimeNanos);
         if (endToEndLatencyMicros > 0) {
-            endToEndCumulativeLatencyRecorder.recordValue(endToEndLatencyMicros);
-            endToEndLatencyRecorder.recordValue(endToEndLatencyMicros);
-            endToEndLatencyStats.registerSuccessfulEvent(endToEndLatencyMicros, TimeUnit.MICROSECONDS);
+            endToEndLatencyRecorder.record(endToEndLatencyMicros);
+        } else if (endToEndLatencyMicros < 0) {
+            negativeEndToEndLatencies.increment();
+        }
+        return endToEndLatencyMicros;
+    }
+
+    /**
+     * @return the current time of this worker
+     */
+    public ClockReading readClock() {
+        ClockReading reading = new ClockReading();
+        reading.epochNanos = currentTimeEpochNanos();
+        return reading;
+    }
+
+    /**
+     * Correct the send time of the messages by the clock offsets of the workers that sent them
+     *
+     * @param offsetsNanos
+     *            the offset of the clock of each worker from a common reference, by the worker id assigned by the
+     *            coordinator
+     */
+    public void setClockOffsets(Map<Integer, Long> offsetsNanos) {
+        long ownOffsetNanos = offsetsNanos.getOrDefault(workerId, 0L);
+        long[] corrections = new long[offsetsNanos.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+        offsetsNanos.forEach((id, offsetNanos) -> corrections[id] = ownOffsetNanos - offsetNanos);
+        sendTimeCorrectionsNanos = corrections;
+        log.info("Clock offsets (us): {} - own: {}", offsetsNanos.values().stream()
+                .map(TimeUnit.NANOSECONDS::toMicros).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMicros(ownOffsetNanos));
+    }
+
+    @Override
+    public Map<String, ClockOffset> synchronizeClocks() {
+        // All the producers and consumers share the clock of this worker
+        return Collections.emptyMap();
+    }
+
+    private void waitWhileConsumersArePaused() {
+        synchronized (consumersPauseLock) {
+            while (consumersArePaused) {
+                try {
+                    consumersPauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void releasePausedConsumers() {
+        synchronized (consumersPauseLock) {
+            consumersArePaused = false;
+            consumersPauseLock.notifyAll();
+        }
+    }
+
+    private void afterMessagesReceived(int count) {
+        ConsumerWork work = consumerWork;
+        if (work != null) {
+            for (int i = 0; i < count; i++) {
+                doConsumerWork(work);
+            }
+        }
+
+        if (consumersArePaused) {
+            waitWhileConsumersArePaused();
+        }
+    }
+
+    private void startConsumerWork(ConsumerWork work) {
+        if (work == null || work.type == ConsumerWork.Type.NONE) {
+            return;
+        }
+
+        if (work.threads > 0) {
+            // When the queue is full, the driver thread runs the work itself and stops pulling more messages
+            consumerWorkExecutor = new ThreadPoolExecutor(work.threads, work.threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(work.queueSize), new DefaultThreadFactory("local-worker-consumer-work"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        consumerWork = work;
+
+        log.info("Consumers simulate {} work of {} us / {} bytes on {} threads", work.type, work.durationMicros,
+                work.allocationBytes, work.threads);
+    }
+
+    private void doConsumerWork(ConsumerWork work) {
+        ExecutorService workExecutor = consumerWorkExecutor;
+        if (workExecutor == null) {
+            work.perform();
+            return;
         }
 
-        while (consumersArePaused) {
+        long enqueueTime = System.nanoTime();
+        workExecutor.execute(() -> {
+            long queueDelayMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - enqueueTime);
+            consumerQueueDelayRecorder.record(queueDelayMicros);
+            work.perform();
+        });
+    }
+
+    /**
+     * Callback of a single subscription, for when the messages of each subscription need to be told apart: to check
+     * their sequence, with one tracker for each producer, and to break down the stats by topic
+     */
+    private final class SubscriptionCallback implements ConsumerCallback {
+        private final LongAdder subscriptionMessagesReceived;
+
+        // Null when the sequences are not tracked
+        private final SequenceRecorder sequences;
+
+        // Null when the stats are not broken down by topic
+        private final TopicStatsRecorder topicStats;
+
+        SubscriptionCallback(LongAdder subscriptionMessagesReceived, boolean sequenceTrackingEnabled,
+                TopicStatsRecorder topicStats) {
+            this.subscriptionMessagesReceived = subscriptionMessagesReceived;
+            if (sequenceTrackingEnabled) {
+                sequences = new SequenceRecorder(SEQUENCE_TRACKING_WINDOW, SEQUENCE_TRACKING_MAX_GAPS, messagesLost,
+                        messagesDuplicated, messagesOutOfOrder);
+                sequenceRecorders.add(sequences);
+            } else {
+                sequences = null;
+            }
+            this.topicStats = topicStats;
+        }
+
+        @Override
+        public void messageReceived(byte[] payload, long publishTimestamp) {
+            subscriptionMessagesReceived.increment();
+            track(payload);
+            received(payload.length, sendTimeNanos(payload, publishTimestamp), topicStats);
+        }
+
+        @Override
+        public void messageReceived(int size, ByteBuffer payload, long publishTimestamp) {
+            subscriptionMessagesReceived.increment();
+            if (sequences != null && payload != null && MessageHeader.isPresent(payload)) {
+                sequences.record(MessageHeader.getProducerId(payload), MessageHeader.getSequence(payload));
+            }
+            received(size, sendTimeNanos(payload, publishTimestamp), topicStats);
+        }
+
+        @Override
+        public void messagesReceived(byte[][] payloads, int[] sizes, long[] publishTimestamps, int count) {
+            subscriptionMessagesReceived.add(count);
+            for (int i = 0; i < count; i++) {
+                track(payloads[i]);
+            }
+            receivedBatch(payloads, sizes, publishTimestamps, count, topicStats);
+        }
+
+        @Override
+        public boolean needsPayload() {
+            return sequences != null || messageHeaderEnabled;
+        }
+
+        private void track(byte[] payload) {
+            if (sequences != null && payload != null && MessageHeader.isPresent(payload)) {
+                sequences.record(MessageHeader.getProducerId(payload), MessageHeader.getSequence(payload));
+            }
+        }
+    }
+
+    @Override
+    public void startStatsStreaming(long intervalMillis, Consumer<PeriodStats> listener) {
+        startStatsStreaming(intervalMillis, 0, listener);
+    }
+
+    /**
+     * @param clockOffsetNanos
+     *            the offset of the clock of this worker from the clock of the coordinator. The periods end at multiples
+     *            of the interval on the clock of the coordinator, and are stamped with it, so that the periods of
+     *            workers with skewed clocks still cover the same time and are merged together.
+     */
+    public synchronized void startStatsStreaming(long intervalMillis, long clockOffsetNanos,
+            Consumer<PeriodStats> listener) {
+        stopStatsStreaming();
+
+        // Drop what was recorded so far, so that the first streamed period covers no more than one interval
+        getPeriodStats();
+
+        ScheduledExecutorService executor = Executors
+                .newSingleThreadScheduledExecutor(new DefaultThreadFactory("local-worker-stats-streaming"));
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        long initialDelayNanos = intervalNanos
+                - Math.floorMod(currentTimeEpochNanos() - clockOffsetNanos, intervalNanos);
+        executor.scheduleAtFixedRate(() -> {
             try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                PeriodStats stats = getPeriodStats();
+                // Round to the closest multiple of the interval, to absorb the jitter of the scheduler
+                long coordinatorTimeMillis = TimeUnit.NANOSECONDS.toMillis(currentTimeEpochNanos() - clockOffsetNanos);
+                stats.timestampMillis = Math.round((double) coordinatorTimeMillis / intervalMillis) * intervalMillis;
+                listener.accept(stats);
+            } catch (Throwable t) {
+                log.warn("Failed to stream the period stats", t);
             }
+        }, initialDelayNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        statsStreamingExecutor = executor;
+
+        log.info("Streaming the period stats every {} ms", intervalMillis);
+    }
+
+    @Override
+    public synchronized void stopStatsStreaming() {
+        if (statsStreamingExecutor != null) {
+            statsStreamingExecutor.shutdownNow();
+            statsStreamingExecutor = null;
+            log.info("Stopped streaming the period stats");
         }
     }
 
     @Override
     public void pauseConsumers() throws IOException {
-        consumersArePaused = true;
-        log.info("Pausing consumers");
+        int unsupported = 0;
+        for (BenchmarkConsumer consumer : consumers) {
+            if (!consumer.supportsPause()) {
+                unsupported++;
+                continue;
+            }
+            try {
+                consumer.pause();
+            } catch (Exception e) {
+                throw new IOException("Failed to pause consumer", e);
+            }
+        }
+
+        if (unsupported > 0) {
+            // Fall back to blocking the driver threads on their next message
+            consumersArePaused = true;
+        }
+        log.info("Pausing consumers ({} without driver support)", unsupported);
     }
 
     @Override
     public void resumeConsumers() throws IOException {
-        consumersArePaused = false;
+        releasePausedConsumers();
+        for (BenchmarkConsumer consumer : consumers) {
+            if (!consumer.supportsPause()) {
+                // Already released above
+                continue;
+            }
+            try {
+                consumer.resume();
+            } catch (Exception e) {
+                throw new IOException("Failed to resume consumer", e);
+            }
+        }
         log.info("Resuming consumers");
     }
 
     @Override
     public void resetStats() throws IOException {
         publishLatencyRecorder.reset();
-        cumulativePublishLatencyRecorder.reset();
+        correctedPublishLatencyRecorder.reset();
         endToEndLatencyRecorder.reset();
-        endToEndCumulativeLatencyRecorder.reset();
+        consumerQueueDelayRecorder.reset();
+        topicStats.values().forEach(TopicStatsRecorder::reset);
     }
 
     @Override
     public void stopAll() throws IOException {
         testCompleted = true;
-        consumersArePaused = false;
+        stopStatsStreaming();
+        rateLimiter = null;
+
+        CountDownLatch startLatch = loadStartLatch;
+        if (startLatch != null) {
+            // Let the threads of a load that was never started exit
+            startLatch.countDown();
+            loadStartLatch = null;
+        }
+        releasePausedConsumers();
         producersArePaused = false;
 
         publishLatencyRecorder.reset();
-        cumulativePublishLatencyRecorder.reset();
+        correctedPublishLatencyRecorder.reset();
         endToEndLatencyRecorder.reset();
-        endToEndCumulativeLatencyRecorder.reset();
+        consumerQueueDelayRecorder.reset();
+        topicStats.clear();
 
         messagesSent.reset();
         bytesSent.reset();
@@ -371,20 +1088,43 @@ public class LocalWorker implements Worker, ConsumerCallback {
         bytesReceived.reset();
         totalMessagesSent.reset();
         totalMessagesReceived.reset();
+        publishWindowBlockedTime.reset();
+        peakOutstandingRequests.reset();
+        inFlightWindows.clear();
+        sequenceRecorders.clear();
+        messagesLost.reset();
+        messagesDuplicated.reset();
+        messagesOutOfOrder.reset();
+        negativeEndToEndLatencies.reset();
 
         try {
             Thread.sleep(100);
 
+            for (Thread thread : producerThreads) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            producerThreads.clear();
+
             for (BenchmarkProducer producer : producers) {
                 producer.close();
             }
             producers.clear();
+            producerTopics.clear();
+            producerMessagesSent.clear();
+            subscriptionMessagesReceived.clear();
 
             for (BenchmarkConsumer consumer : consumers) {
                 consumer.close();
             }
             consumers.clear();
 
+            consumerWork = null;
+            ExecutorService workExecutor = consumerWorkExecutor;
+            if (workExecutor != null) {
+                workExecutor.shutdownNow();
+                consumerWorkExecutor = null;
+            }
+
             if (benchmarkDriver != null) {
                 benchmarkDriver.close();
                 benchmarkDriver = null;
@@ -396,7 +1136,14 @@ public class LocalWorker implements Worker, ConsumerCallback {
 
     @Override
     public void close() throws Exception {
-        executor.shutdown();
+        testCompleted = true;
+        stopStatsStreaming();
+        latencySnapshotExecutor.shutdownNow();
+        jvmTelemetry.close();
+        epochClock.close();
+        if (histogramLog != null) {
+            histogramLog.close();
+        }
     }
 
     private static final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
@@ -408,6 +1155,15 @@ public class LocalWorker implements Worker, ConsumerCallback {
         mapper.enable(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE);
     }
 
+    private static final String LOCAL_WORKER_NAME = "local";
+
+    private static final int SEQUENCE_TRACKING_WINDOW = 64 * 1024;
+    private static final int SEQUENCE_TRACKING_MAX_GAPS = 10_000;
+
+    private static final long WINDOW_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private static final long LATENCY_SNAPSHOT_INTERVAL_MILLIS = 1000;
+
     private static final Logger log = LoggerFactory.getLogger(LocalWorker.class);
 
     @Override
@@ -418,6 +1174,11 @@ public class LocalWorker implements Worker, ConsumerCallback {
 
     @Override
     public void resumeProducers() throws IOException {
+        StripedRateLimiter limiter = rateLimiter;
+        if (limiter != null) {
+            // Don't let the producers burst to catch up on the time spent paused
+            limiter.reset();
+        }
         producersArePaused = false;
         log.info("Resuming producers");
     }
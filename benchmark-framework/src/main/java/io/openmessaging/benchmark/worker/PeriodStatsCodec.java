@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+/**
+ * Binary encoding of the period stats sent by the workers to the coordinator, in place of the JSON encoding with the
+ * histograms in base64, which is only kept for debugging.
+ * <p>
+ * The stats start with a magic number and a format version, followed by the counters, the per-topic and
+ * per-subscription totals, the compressed histograms and the per-topic stats. Strings, collections and histograms are
+ * all prefixed with their length. A decoder rejects the versions it doesn't know, so a newer version can change the
+ * layout freely.
+ */
+public final class PeriodStatsCodec {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    static final int MAGIC = 0x4F4D4253; // "OMBS"
+    static final byte VERSION = 4;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024 * 1024;
+    private static final int MIN_HISTOGRAM_SPACE = 64 * 1024;
+
+    // Each encoding thread reuses its buffer, grown to the largest stats it has encoded
+    private static final ThreadLocal<ByteBuffer> encodeBuffer = ThreadLocal
+            .withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    private PeriodStatsCodec() {
+    }
+
+    /**
+     * @return the encoded stats, in a buffer owned by the calling thread which is only valid until its next call
+     */
+    public static ByteBuffer encode(PeriodStats stats) {
+        Encoder encoder = new Encoder(encodeBuffer.get());
+        encoder.buffer.clear();
+
+        encoder.ensureCapacity(5);
+        encoder.buffer.putInt(MAGIC);
+        encoder.buffer.put(VERSION);
+
+        encoder.putLongs(stats.timestampMillis, stats.messagesSent, stats.bytesSent, stats.messagesReceived,
+                stats.bytesReceived, stats.totalMessagesSent, stats.totalMessagesReceived,
+                stats.publishWindowBlockedTimeMicros, stats.outstandingRequests, stats.peakOutstandingRequests,
+                stats.clockCalibrationErrorMicros, stats.messagesLost, stats.messagesDuplicated,
+                stats.messagesOutOfOrder, stats.negativeEndToEndLatencies, stats.gcCount, stats.gcTimeMillis,
+                stats.maxPauseMicros, stats.allocatedBytes, stats.heapUsedBytes, stats.heapCommittedBytes,
+                stats.threadCount, stats.processCpuTimeMillis);
+
+        encoder.putCounters(stats.totalMessagesSentPerTopic);
+        encoder.putInt(stats.totalMessagesReceivedPerSubscription.size());
+        stats.totalMessagesReceivedPerSubscription.forEach((topic, subscriptions) -> {
+            encoder.putString(topic);
+            encoder.putCounters(subscriptions);
+        });
+
+        encoder.putHistogram(stats.publishLatency);
+        encoder.putHistogram(stats.correctedPublishLatency);
+        encoder.putHistogram(stats.endToEndLatency);
+        encoder.putHistogram(stats.consumerQueueDelay);
+
+        encoder.putInt(stats.topicStats.size());
+        stats.topicStats.forEach((topic, topicStats) -> {
+            encoder.putString(topic);
+            encoder.putInt(topicStats.otherTopics);
+            encoder.putLongs(topicStats.messagesSent, topicStats.bytesSent, topicStats.messagesReceived,
+                    topicStats.bytesReceived);
+            encoder.putHistogram(topicStats.publishLatency);
+            encoder.putHistogram(topicStats.endToEndLatency);
+        });
+
+        // Keep the grown buffer for the next stats
+        encodeBuffer.set(encoder.buffer);
+        encoder.buffer.flip();
+        return encoder.buffer;
+    }
+
+    public static PeriodStats decode(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasArray() || buffer.arrayOffset() != 0) {
+            // The histograms are decoded from the backing array, see getHistogram()
+            ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+            copy.put(buffer).flip();
+            buffer = copy;
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not an encoding of period stats");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported period stats version " + version + ", expected " + VERSION);
+            }
+
+            PeriodStats stats = new PeriodStats();
+            stats.timestampMillis = buffer.getLong();
+            stats.messagesSent = buffer.getLong();
+            stats.bytesSent = buffer.getLong();
+            stats.messagesReceived = buffer.getLong();
+            stats.bytesReceived = buffer.getLong();
+            stats.totalMessagesSent = buffer.getLong();
+            stats.totalMessagesReceived = buffer.getLong();
+            stats.publishWindowBlockedTimeMicros = buffer.getLong();
+            stats.outstandingRequests = buffer.getLong();
+            stats.peakOutstandingRequests = buffer.getLong();
+            stats.clockCalibrationErrorMicros = buffer.getLong();
+            stats.messagesLost = buffer.getLong();
+            stats.messagesDuplicated = buffer.getLong();
+            stats.messagesOutOfOrder = buffer.getLong();
+            stats.negativeEndToEndLatencies = buffer.getLong();
+            stats.gcCount = buffer.getLong();
+            stats.gcTimeMillis = buffer.getLong();
+            stats.maxPauseMicros = buffer.getLong();
+            stats.allocatedBytes = buffer.getLong();
+            stats.heapUsedBytes = buffer.getLong();
+            stats.heapCommittedBytes = buffer.getLong();
+            stats.threadCount = buffer.getLong();
+            stats.processCpuTimeMillis = buffer.getLong();
+
+            stats.totalMessagesSentPerTopic = getCounters(buffer);
+            int topics = buffer.getInt();
+            for (int i = 0; i < topics; i++) {
+                stats.totalMessagesReceivedPerSubscription.put(getString(buffer), getCounters(buffer));
+            }
+
+            stats.publishLatency = getHistogram(buffer);
+            stats.correctedPublishLatency = getHistogram(buffer);
+            stats.endToEndLatency = getHistogram(buffer);
+            stats.consumerQueueDelay = getHistogram(buffer);
+
+            topics = buffer.getInt();
+            for (int i = 0; i < topics; i++) {
+                String topic = getString(buffer);
+                TopicStats topicStats = new TopicStats();
+                topicStats.otherTopics = buffer.getInt();
+                topicStats.messagesSent = buffer.getLong();
+                topicStats.bytesSent = buffer.getLong();
+                topicStats.messagesReceived = buffer.getLong();
+                topicStats.bytesReceived = buffer.getLong();
+                topicStats.publishLatency = getHistogram(buffer);
+                topicStats.endToEndLatency = getHistogram(buffer);
+                stats.topicStats.put(topic, topicStats);
+            }
+            return stats;
+        } catch (BufferUnderflowException | IllegalArgumentException | DataFormatException e) {
+            throw new IOException("Corrupted period stats", e);
+        }
+    }
+
+    private static Map<String, Long> getCounters(ByteBuffer buffer) {
+        Map<String, Long> counters = new TreeMap<>();
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            counters.put(getString(buffer), buffer.getLong());
+        }
+        return counters;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static Histogram getHistogram(ByteBuffer buffer) throws DataFormatException {
+        int length = buffer.getInt();
+        int start = buffer.position();
+        // Decoded in place, as the histogram reads the backing array without the offset of a slice
+        Histogram histogram = Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+        buffer.position(start + length);
+        return histogram;
+    }
+
+    private static final class Encoder {
+        private ByteBuffer buffer;
+
+        Encoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        void putInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLongs(long... values) {
+            ensureCapacity(values.length * Long.BYTES);
+            for (long value : values) {
+                buffer.putLong(value);
+            }
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(UTF_8);
+            ensureCapacity(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putCounters(Map<String, Long> counters) {
+            putInt(counters.size());
+            counters.forEach((name, value) -> {
+                putString(name);
+                putLongs(value);
+            });
+        }
+
+        void putHistogram(Histogram histogram) {
+            // The needed capacity reported by the histogram is the size of its uncompressed counts, which is far more
+            // than what they take once compressed. The compression stops silently when the buffer is full, so the
+            // buffer is grown until the compressed histogram fits with room to spare.
+            int lengthPosition = buffer.position();
+            int spare = MIN_HISTOGRAM_SPACE;
+            while (true) {
+                ensureCapacity(Integer.BYTES + spare);
+                buffer.position(lengthPosition + Integer.BYTES);
+                int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+                if (buffer.hasRemaining()) {
+                    buffer.putInt(lengthPosition, length);
+                    return;
+                }
+
+                buffer.position(lengthPosition);
+                spare = buffer.capacity();
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.openmessaging.benchmark.utils.SequenceTracker;
+
+/**
+ * Sequences received by the consumers of one subscription, checked with one {@link SequenceTracker} per producer.
+ * <p>
+ * The sequences of a producer can be received by several consumer threads, when it publishes across partitions, so
+ * its tracker has to see them all. The consumer threads don't touch the trackers on the hot path though: each one
+ * appends the producer id and the sequence of its messages to its own single-writer ring, without boxing or locking,
+ * and the rings are drained into the trackers in batches, either by the thread itself when its ring is full or by
+ * {@link #drain()}, which the worker calls periodically and before reading the counters.
+ * <p>
+ * The rings are drained one after the other, so the sequences of a producer received by several threads are not
+ * checked in the order they were received. Once the sequences of a producer come from more than one thread (eg: a
+ * shared subscription, or several consumers of a subscription), its out-of-order messages are no longer counted,
+ * only its lost and duplicated ones.
+ * <p>
+ * The trackers are kept in a table indexed by the worker id and the producer index of the producer id.
+ */
+final class SequenceRecorder {
+
+    private static final int RING_SIZE = 4 * 1024;
+    private static final int RING_MASK = RING_SIZE - 1;
+    private static final int NO_RING = -1;
+
+    private final int windowSize;
+    private final int maxGaps;
+    private final LongAdder lost;
+    private final LongAdder duplicated;
+    private final LongAdder outOfOrder;
+
+    private final AtomicInteger nextRingId = new AtomicInteger();
+    private final List<ThreadRing> threadRings = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadRing> threadRing = ThreadLocal.withInitial(() -> {
+        ThreadRing ring = new ThreadRing(Thread.currentThread(), nextRingId.getAndIncrement());
+        threadRings.add(ring);
+        return ring;
+    });
+
+    // Guarded by this, indexed by the worker id and then by the producer index
+    private ProducerTracker[][] trackers = new ProducerTracker[0][];
+
+    SequenceRecorder(int windowSize, int maxGaps, LongAdder lost, LongAdder duplicated, LongAdder outOfOrder) {
+        this.windowSize = windowSize;
+        this.maxGaps = maxGaps;
+        this.lost = lost;
+        this.duplicated = duplicated;
+        this.outOfOrder = outOfOrder;
+    }
+
+    void record(int producerId, long sequence) {
+        ThreadRing ring = threadRing.get();
+        if (ring.isFull()) {
+            drain();
+        }
+        ring.add(producerId, sequence);
+    }
+
+    /**
+     * Check the sequences appended by all the threads since the last drain
+     */
+    synchronized void drain() {
+        for (ThreadRing ring : threadRings) {
+            long head = ring.consumed.get();
+            long tail = ring.published.get();
+            for (; head < tail; head++) {
+                int index = (int) head & RING_MASK;
+                ProducerTracker tracker = tracker(ring.producerIds[index]);
+                if (tracker.ringId != ring.id) {
+                    if (tracker.ringId != NO_RING) {
+                        tracker.tracker.ignoreOutOfOrder();
+                    }
+                    tracker.ringId = ring.id;
+                }
+                tracker.tracker.record(ring.sequences[index]);
+            }
+            // Hand the slots back to the owner only once they have been read
+            ring.consumed.lazySet(tail);
+
+            if (!ring.owner.isAlive() && ring.published.get() == tail) {
+                // The last sequences of the thread have just been checked
+                threadRings.remove(ring);
+            }
+        }
+    }
+
+    private ProducerTracker tracker(int producerId) {
+        int workerId = producerId >>> 16;
+        int producerIndex = producerId & 0xFFFF;
+        if (workerId >= trackers.length) {
+            trackers = Arrays.copyOf(trackers, workerId + 1);
+        }
+
+        ProducerTracker[] workerTrackers = trackers[workerId];
+        if (workerTrackers == null || producerIndex >= workerTrackers.length) {
+            workerTrackers = workerTrackers == null ? new ProducerTracker[producerIndex + 1]
+                    : Arrays.copyOf(workerTrackers, producerIndex + 1);
+            trackers[workerId] = workerTrackers;
+        }
+
+        ProducerTracker tracker = workerTrackers[producerIndex];
+        if (tracker == null) {
+            tracker = new ProducerTracker(new SequenceTracker(windowSize, maxGaps, lost, duplicated, outOfOrder));
+            workerTrackers[producerIndex] = tracker;
+        }
+        return tracker;
+    }
+
+    private static final class ProducerTracker {
+        private final SequenceTracker tracker;
+        // Ring the last sequence of the producer came from
+        private int ringId = NO_RING;
+
+        ProducerTracker(SequenceTracker tracker) {
+            this.tracker = tracker;
+        }
+    }
+
+    /**
+     * Ring of the sequences received by one thread, written by that thread only and read under the monitor of the
+     * recorder
+     */
+    private static final class ThreadRing {
+        private final Thread owner;
+        private final int id;
+        private final int[] producerIds = new int[RING_SIZE];
+        private final long[] sequences = new long[RING_SIZE];
+
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong consumed = new AtomicLong();
+
+        // Only accessed by the owner
+        private long tail = 0;
+        private long cachedConsumed = 0;
+
+        ThreadRing(Thread owner, int id) {
+            this.owner = owner;
+            this.id = id;
+        }
+
+        boolean isFull() {
+            if (tail - cachedConsumed < RING_SIZE) {
+                return false;
+            }
+            cachedConsumed = consumed.get();
+            return tail - cachedConsumed >= RING_SIZE;
+        }
+
+        void add(int producerId, long sequence) {
+            int index = (int) tail & RING_MASK;
+            producerIds[index] = producerId;
+            sequences[index] = sequence;
+            published.lazySet(++tail);
+        }
+    }
+}
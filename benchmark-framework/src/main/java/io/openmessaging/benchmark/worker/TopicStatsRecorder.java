@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+/**
+ * Rates and latencies of the messages of a single topic, for the per-topic breakdown of the period stats.
+ * <p>
+ * The histograms only keep 2 significant digits and grow with the range of the recorded values, so that a worker
+ * with thousands of topics only spends a few KB on each of them.
+ */
+final class TopicStatsRecorder {
+
+    static final int SIGNIFICANT_DIGITS = 2;
+
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    private final Recorder publishLatencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder endToEndLatencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+
+    void messageSent(int payloadSize, long publishLatencyMicros) {
+        messagesSent.increment();
+        bytesSent.add(payloadSize);
+        publishLatencyRecorder.recordValue(publishLatencyMicros);
+    }
+
+    void messageReceived(int payloadSize, long endToEndLatencyMicros) {
+        messagesReceived.increment();
+        bytesReceived.add(payloadSize);
+        if (endToEndLatencyMicros > 0) {
+            endToEndLatencyRecorder.recordValue(endToEndLatencyMicros);
+        }
+    }
+
+    TopicStats getPeriodStats() {
+        TopicStats stats = new TopicStats();
+        stats.messagesSent = messagesSent.sumThenReset();
+        stats.bytesSent = bytesSent.sumThenReset();
+        stats.messagesReceived = messagesReceived.sumThenReset();
+        stats.bytesReceived = bytesReceived.sumThenReset();
+        stats.publishLatency = publishLatencyRecorder.getIntervalHistogram();
+        stats.endToEndLatency = endToEndLatencyRecorder.getIntervalHistogram();
+        return stats;
+    }
+
+    /**
+     * Keep the K busiest and the K slowest topics, ranked like in the summary of the coordinator, and merge the other
+     * topics into a single {@link TopicStats#OTHER_TOPICS} entry. This bounds the size of the stats that a worker sends
+     * at each period, whatever its number of topics.
+     *
+     * @param k
+     *            the number of topics kept for each ranking, or 0 to keep all the topics
+     */
+    static void keepTopK(Map<String, TopicStats> topicStats, int k) {
+        if (k <= 0 || topicStats.size() <= 2 * k) {
+            return;
+        }
+
+        Set<String> kept = new HashSet<>();
+        top(topicStats, Comparator.comparingLong((TopicStats ts) -> ts.messagesReceived)
+                .thenComparingLong(ts -> ts.messagesSent), k, kept);
+
+        // The percentiles are computed once, rather than at each comparison
+        Map<String, Long> endToEndLatency99pct = new HashMap<>(topicStats.size() * 2);
+        topicStats.forEach((topic, ts) -> endToEndLatency99pct.put(topic, ts.endToEndLatency.getValueAtPercentile(99)));
+        top(endToEndLatency99pct, Comparator.naturalOrder(), k, kept);
+
+        TopicStats others = new TopicStats();
+        Iterator<Map.Entry<String, TopicStats>> it = topicStats.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, TopicStats> e = it.next();
+            if (kept.contains(e.getKey())) {
+                continue;
+            }
+
+            TopicStats ts = e.getValue();
+            others.messagesSent += ts.messagesSent;
+            others.bytesSent += ts.bytesSent;
+            others.messagesReceived += ts.messagesReceived;
+            others.bytesReceived += ts.bytesReceived;
+            others.publishLatency.add(ts.publishLatency);
+            others.endToEndLatency.add(ts.endToEndLatency);
+            others.otherTopics++;
+            it.remove();
+        }
+        topicStats.put(TopicStats.OTHER_TOPICS, others);
+    }
+
+    /**
+     * Add the K highest topics to the given set, keeping no more than K candidates at any time
+     */
+    private static <T> void top(Map<String, T> values, Comparator<? super T> order, int k, Set<String> selected) {
+        PriorityQueue<Map.Entry<String, T>> heap = new PriorityQueue<>(k + 1, Map.Entry.comparingByValue(order));
+        for (Map.Entry<String, T> e : values.entrySet()) {
+            heap.add(e);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        heap.forEach(e -> selected.add(e.getKey()));
+    }
+
+    void reset() {
+        messagesSent.reset();
+        bytesSent.reset();
+        messagesReceived.reset();
+        bytesReceived.reset();
+        publishLatencyRecorder.reset();
+        endToEndLatencyRecorder.reset();
+    }
+}
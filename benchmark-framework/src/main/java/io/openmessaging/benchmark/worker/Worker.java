@@ -21,7 +21,10 @@ package io.openmessaging.benchmark.worker;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import io.openmessaging.benchmark.worker.commands.ClockOffset;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
@@ -44,7 +47,18 @@ public interface Worker extends AutoCloseable {
 
     void probeProducers() throws IOException;
 
-    void startLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException;
+    /**
+     * Get the producers ready to send the assigned load (threads, payloads and pacing), without sending anything yet
+     */
+    void prepareLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException;
+
+    /**
+     * Start the prepared load at the given wall-clock time, blocking until it is started. The time is translated to
+     * the clock of each worker with the offsets of the last {@link #synchronizeClocks()}.
+     *
+     * @return how far the actual start was from the target time, in microseconds, for each worker
+     */
+    Map<String, Long> startLoadAt(long startTimeEpochNanos) throws IOException;
 
     void adjustPublishRate(double publishRate) throws IOException;
 
@@ -60,8 +74,27 @@ public interface Worker extends AutoCloseable {
 
     PeriodStats getPeriodStats() throws IOException;
 
+    /**
+     * Push the period stats to the listener at a fixed interval, instead of waiting for {@link #getPeriodStats()} to
+     * be called. The periods end at multiples of the interval on the wall clock, corrected by the offsets of the last
+     * {@link #synchronizeClocks()}, so that the periods of all the workers can be merged by timestamp. The stats are
+     * reset at each period, so {@link #getPeriodStats()} should not be called while streaming.
+     */
+    void startStatsStreaming(long intervalMillis, Consumer<PeriodStats> listener) throws IOException;
+
+    void stopStatsStreaming() throws IOException;
+
     CumulativeLatencies getCumulativeLatencies() throws IOException;
 
+    /**
+     * Estimate the offset of the clock of each worker from the clock of the coordinator, with NTP-style round trips,
+     * and have the consumers correct the end-to-end latency of each message by the offset of the worker that sent it.
+     * Only the messages with a header can be corrected, as the header identifies their producer.
+     *
+     * @return the offset of each worker, or an empty map when all the workers share the same clock
+     */
+    Map<String, ClockOffset> synchronizeClocks() throws IOException;
+
     void resetStats() throws IOException;
 
     void stopAll() throws IOException;
@@ -18,11 +18,16 @@
  */
 package io.openmessaging.benchmark.worker;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
+import org.HdrHistogram.Histogram;
 import org.apache.bookkeeper.stats.StatsLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,19 +40,21 @@ import com.google.common.io.Files;
 
 import io.javalin.Context;
 import io.javalin.Javalin;
+import io.javalin.embeddedserver.jetty.websocket.WsSession;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
 import io.openmessaging.benchmark.worker.commands.PeriodStats;
 import io.openmessaging.benchmark.worker.commands.ProducerWorkAssignment;
+import io.openmessaging.benchmark.worker.commands.TopicStats;
 import io.openmessaging.benchmark.worker.commands.TopicsInfo;
 
 @SuppressWarnings("unchecked")
 public class WorkerHandler {
 
-    private final Worker localWorker;
+    private final LocalWorker localWorker;
 
-    public WorkerHandler(Javalin app, StatsLogger statsLogger) {
-        this.localWorker = new LocalWorker(statsLogger);
+    public WorkerHandler(Javalin app, StatsLogger statsLogger, HistogramIntervalLog histogramLog) {
+        this.localWorker = new LocalWorker(statsLogger, histogramLog);
 
         app.post("/initialize-driver", this::handleInitializeDriver);
         app.post("/create-topics", this::handleCreateTopics);
@@ -59,13 +66,20 @@ public class WorkerHandler {
         app.post("/resume-consumers", this::handleResumeConsumers);
         app.post("/pause-producers", this::handlePauseProducers);
         app.post("/resume-producers", this::handleResumeProducers);
-        app.post("/start-load", this::handleStartLoad);
+        app.post("/prepare-load", this::handlePrepareLoad);
+        app.post("/start-load-at", this::handleStartLoadAt);
         app.post("/adjust-publish-rate", this::handleAdjustPublishRate);
         app.post("/stop-all", this::handleStopAll);
         app.get("/period-stats", this::handlePeriodStats);
         app.get("/cumulative-latencies", this::handleCumulativeLatencies);
         app.get("/counters-stats", this::handleCountersStats);
         app.post("/reset-stats", this::handleResetStats);
+        app.get("/clock", this::handleClock);
+        app.post("/clock-offsets", this::handleClockOffsets);
+        app.ws("/stats-stream", ws -> {
+            ws.onConnect(this::handleStatsStreamConnect);
+            ws.onClose((session, statusCode, reason) -> localWorker.stopStatsStreaming());
+        });
 
         app.exception(RuntimeException.class, (e, ctx) -> {
             log.error("Request handler: {} - Exception: {}", ctx.path(), e.getMessage());
@@ -78,7 +92,8 @@ public class WorkerHandler {
         File tempFile = File.createTempFile("driver-configuration" + System.currentTimeMillis(), "conf");
         Files.write(ctx.bodyAsBytes(), tempFile);
 
-        localWorker.initializeDriver(tempFile);
+        String workerId = ctx.queryParam("workerId");
+        localWorker.initializeDriver(tempFile, workerId != null ? Integer.parseInt(workerId) : 0);
         tempFile.delete();
     }
 
@@ -129,13 +144,20 @@ public class WorkerHandler {
         localWorker.resumeProducers();
     }
 
-    private void handleStartLoad(Context ctx) throws Exception {
+    private void handlePrepareLoad(Context ctx) throws Exception {
         ProducerWorkAssignment producerWorkAssignment = mapper.readValue(ctx.body(), ProducerWorkAssignment.class);
 
-        log.info("Start load publish-rate: {} msg/s -- payload-size: {}", producerWorkAssignment.publishRate,
-                producerWorkAssignment.payloadData.length);
+        log.info("Prepare load publish-rate: {} msg/s -- payload-size: {} -- payload-pool-size: {}",
+                producerWorkAssignment.publishRate, producerWorkAssignment.messageSize,
+                producerWorkAssignment.payloadPoolSize);
+
+        localWorker.prepareLoad(producerWorkAssignment);
+    }
 
-        localWorker.startLoad(producerWorkAssignment);
+    private void handleStartLoadAt(Context ctx) throws Exception {
+        Long startTimeEpochNanos = mapper.readValue(ctx.body(), Long.class);
+        log.info("Start load at: {}", Instant.ofEpochSecond(0, startTimeEpochNanos));
+        ctx.result(writer.writeValueAsString(localWorker.startLoadAt(startTimeEpochNanos)));
     }
 
     private void handleAdjustPublishRate(Context ctx) throws Exception {
@@ -149,44 +171,63 @@ public class WorkerHandler {
         localWorker.stopAll();
     }
 
+    /**
+     * The stats are sent in the binary encoding of {@link PeriodStatsCodec}, or as JSON with <code>format=json</code>
+     * for debugging
+     */
     private void handlePeriodStats(Context ctx) throws Exception {
         PeriodStats stats = localWorker.getPeriodStats();
+        if (JSON_FORMAT.equals(ctx.queryParam("format"))) {
+            ctx.result(serializePeriodStats(stats));
+        } else {
+            // Written out by the same thread once the handler returns, before the buffer can be reused
+            ByteBuffer encoded = PeriodStatsCodec.encode(stats);
+            ctx.contentType(PeriodStatsCodec.CONTENT_TYPE);
+            ctx.result(new ByteArrayInputStream(encoded.array(), encoded.position(), encoded.remaining()));
+        }
+    }
 
-        // Serialize histograms
-        synchronized (histogramSerializationBuffer) {
-            histogramSerializationBuffer.clear();
-            stats.publishLatency.encodeIntoCompressedByteBuffer(histogramSerializationBuffer);
-            stats.publishLatencyBytes = new byte[histogramSerializationBuffer.position()];
-            histogramSerializationBuffer.flip();
-            histogramSerializationBuffer.get(stats.publishLatencyBytes);
+    private void handleStatsStreamConnect(WsSession session) throws Exception {
+        long intervalMillis = Long.parseLong(session.queryParam("intervalMillis"));
+        String clockOffset = session.queryParam("clockOffsetNanos");
+        long clockOffsetNanos = clockOffset != null ? Long.parseLong(clockOffset) : 0;
+        boolean json = JSON_FORMAT.equals(session.queryParam("format"));
+        log.info("Stats stream opened by {} with interval {} ms", session.getRemoteAddress(), intervalMillis);
+        localWorker.startStatsStreaming(intervalMillis, clockOffsetNanos, stats -> {
+            try {
+                if (json) {
+                    session.getRemote().sendString(serializePeriodStats(stats));
+                } else {
+                    session.getRemote().sendBytes(PeriodStatsCodec.encode(stats));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to send the period stats to {}", session.getRemoteAddress(), e);
+            }
+        });
+    }
 
-            histogramSerializationBuffer.clear();
-            stats.endToEndLatency.encodeIntoCompressedByteBuffer(histogramSerializationBuffer);
-            stats.endToEndLatencyBytes = new byte[histogramSerializationBuffer.position()];
-            histogramSerializationBuffer.flip();
-            histogramSerializationBuffer.get(stats.endToEndLatencyBytes);
+    private String serializePeriodStats(PeriodStats stats) throws IOException {
+        // Serialize histograms
+        stats.publishLatencyBytes = serializeHistogram(stats.publishLatency);
+        stats.correctedPublishLatencyBytes = serializeHistogram(stats.correctedPublishLatency);
+        stats.endToEndLatencyBytes = serializeHistogram(stats.endToEndLatency);
+        stats.consumerQueueDelayBytes = serializeHistogram(stats.consumerQueueDelay);
+        for (TopicStats topicStats : stats.topicStats.values()) {
+            topicStats.publishLatencyBytes = serializeHistogram(topicStats.publishLatency);
+            topicStats.endToEndLatencyBytes = serializeHistogram(topicStats.endToEndLatency);
         }
 
-        ctx.result(writer.writeValueAsString(stats));
+        return writer.writeValueAsString(stats);
     }
 
     private void handleCumulativeLatencies(Context ctx) throws Exception {
         CumulativeLatencies stats = localWorker.getCumulativeLatencies();
 
         // Serialize histograms
-        synchronized (histogramSerializationBuffer) {
-            histogramSerializationBuffer.clear();
-            stats.publishLatency.encodeIntoCompressedByteBuffer(histogramSerializationBuffer);
-            stats.publishLatencyBytes = new byte[histogramSerializationBuffer.position()];
-            histogramSerializationBuffer.flip();
-            histogramSerializationBuffer.get(stats.publishLatencyBytes);
-
-            histogramSerializationBuffer.clear();
-            stats.endToEndLatency.encodeIntoCompressedByteBuffer(histogramSerializationBuffer);
-            stats.endToEndLatencyBytes = new byte[histogramSerializationBuffer.position()];
-            histogramSerializationBuffer.flip();
-            histogramSerializationBuffer.get(stats.endToEndLatencyBytes);
-        }
+        stats.publishLatencyBytes = serializeHistogram(stats.publishLatency);
+        stats.correctedPublishLatencyBytes = serializeHistogram(stats.correctedPublishLatency);
+        stats.endToEndLatencyBytes = serializeHistogram(stats.endToEndLatency);
+        stats.consumerQueueDelayBytes = serializeHistogram(stats.consumerQueueDelay);
 
         ctx.result(writer.writeValueAsString(stats));
     }
@@ -200,8 +241,31 @@ public class WorkerHandler {
         localWorker.resetStats();
     }
 
+    private void handleClock(Context ctx) throws Exception {
+        ctx.result(writer.writeValueAsString(localWorker.readClock()));
+    }
+
+    private void handleClockOffsets(Context ctx) throws Exception {
+        Map<Integer, Long> offsetsNanos = mapper.readValue(ctx.body(), new TypeReference<Map<Integer, Long>>() {
+        });
+        localWorker.setClockOffsets(offsetsNanos);
+    }
+
+    private byte[] serializeHistogram(Histogram histogram) {
+        synchronized (histogramSerializationBuffer) {
+            histogramSerializationBuffer.clear();
+            histogram.encodeIntoCompressedByteBuffer(histogramSerializationBuffer);
+            byte[] bytes = new byte[histogramSerializationBuffer.position()];
+            histogramSerializationBuffer.flip();
+            histogramSerializationBuffer.get(bytes);
+            return bytes;
+        }
+    }
+
     private final ByteBuffer histogramSerializationBuffer = ByteBuffer.allocate(1024 * 1024);
 
+    private static final String JSON_FORMAT = "json";
+
     private static final Logger log = LoggerFactory.getLogger(WorkerHandler.class);
 
     private static final ObjectMapper mapper = new ObjectMapper()
@@ -21,6 +21,18 @@ package io.openmessaging.benchmark.worker.commands;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.openmessaging.benchmark.utils.ConsumerWork;
+
 public class ConsumerAssignment {
     public List<TopicSubscription> topicsSubscriptions = new ArrayList<>();
+
+    public boolean messageHeaderEnabled;
+
+    public boolean sequenceTrackingEnabled;
+
+    public ConsumerWork consumerWork;
+
+    public boolean topicStatsEnabled;
+
+    public int topicStatsTopK;
 }
@@ -18,7 +18,16 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 public class CountersStats {
     public long messagesSent;
     public long messagesReceived;
+
+    /** Messages sent by the producers of each topic */
+    public Map<String, Long> messagesSentPerTopic = new TreeMap<>();
+
+    /** Messages received by each subscription, by topic and subscription name */
+    public Map<String, Map<String, Long>> messagesReceivedPerSubscription = new TreeMap<>();
 }
@@ -26,11 +26,25 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class CumulativeLatencies {
 
+    /** Grows with the recorded values, as the publish latency is not capped by the workers */
     @JsonIgnore
-    public Histogram publishLatency = new Histogram(TimeUnit.SECONDS.toMicros(60), 5);
+    public Histogram publishLatency = new Histogram(5);
     public byte[] publishLatencyBytes;
 
+    /**
+     * Publish latency measured from the time at which each message was scheduled to be sent by the rate limiter,
+     * rather than from when it was actually sent, to account for coordinated omission.
+     */
+    @JsonIgnore
+    public Histogram correctedPublishLatency = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
+    public byte[] correctedPublishLatencyBytes;
+
     @JsonIgnore
     public Histogram endToEndLatency = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
     public byte[] endToEndLatencyBytes;
+
+    /** Time spent by the received messages waiting for a thread to do the simulated consumer work */
+    @JsonIgnore
+    public Histogram consumerQueueDelay = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
+    public byte[] consumerQueueDelayBytes;
 }
@@ -18,6 +18,8 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import org.HdrHistogram.Histogram;
@@ -25,6 +27,9 @@ import org.HdrHistogram.Histogram;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class PeriodStats {
+    /** Wall-clock time at the end of the period, when the stats are streamed */
+    public long timestampMillis = 0;
+
     public long messagesSent = 0;
     public long bytesSent = 0;
 
@@ -34,11 +39,74 @@ public class PeriodStats {
     public long totalMessagesSent = 0;
     public long totalMessagesReceived = 0;
 
+    /** Messages sent by the producers of each topic since the start of the test */
+    public Map<String, Long> totalMessagesSentPerTopic = new TreeMap<>();
+
+    /** Messages received by each subscription since the start of the test, by topic and subscription name */
+    public Map<String, Map<String, Long>> totalMessagesReceivedPerSubscription = new TreeMap<>();
+
+    /** Time spent by the producer threads waiting for room in the outstanding requests window */
+    public long publishWindowBlockedTimeMicros = 0;
+
+    /** Number of outstanding requests across all producers, at the end of the period */
+    public long outstandingRequests = 0;
+
+    /** Highest number of outstanding requests reached by any single producer during the period */
+    public long peakOutstandingRequests = 0;
+
+    /** Drift between the worker clock used for end-to-end latency and the system clock, at the last calibration */
+    public long clockCalibrationErrorMicros = 0;
+
+    /**
+     * Messages that never arrived, net of the ones that arrived late, when tracking sequences. Can be negative when
+     * messages counted as lost in a previous period show up.
+     */
+    public long messagesLost = 0;
+    public long messagesDuplicated = 0;
+    public long messagesOutOfOrder = 0;
+
+    /** End-to-end latencies below zero, left out of the histograms, which point to an uncorrected clock offset */
+    public long negativeEndToEndLatencies = 0;
+
+    /*
+     * JVM of the worker during the period. Across several workers, the GC time and the pause are those of the worst
+     * worker, as they tell whether any worker stalled, and the other values are summed.
+     */
+    public long gcCount = 0;
+    public long gcTimeMillis = 0;
+    /** Longest stop of the worker, whether for a GC or any other safepoint */
+    public long maxPauseMicros = 0;
+    /** Bytes allocated by the threads that are still alive at the end of the period */
+    public long allocatedBytes = 0;
+    /** Heap in use and committed at the end of the period */
+    public long heapUsedBytes = 0;
+    public long heapCommittedBytes = 0;
+    public long threadCount = 0;
+    /** CPU time of all the threads of the worker process */
+    public long processCpuTimeMillis = 0;
+
+    /** Grows with the recorded values, as the publish latency is not capped by the workers */
     @JsonIgnore
-    public Histogram publishLatency = new Histogram(TimeUnit.SECONDS.toMicros(60), 5);
+    public Histogram publishLatency = new Histogram(5);
     public byte[] publishLatencyBytes;
 
+    /**
+     * Publish latency measured from the time at which each message was scheduled to be sent by the rate limiter,
+     * rather than from when it was actually sent, to account for coordinated omission.
+     */
+    @JsonIgnore
+    public Histogram correctedPublishLatency = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
+    public byte[] correctedPublishLatencyBytes;
+
     @JsonIgnore
     public Histogram endToEndLatency = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
     public byte[] endToEndLatencyBytes;
+
+    /** Time spent by the received messages waiting for a thread to do the simulated consumer work */
+    @JsonIgnore
+    public Histogram consumerQueueDelay = new Histogram(TimeUnit.HOURS.toMicros(12), 5);
+    public byte[] consumerQueueDelayBytes;
+
+    /** Stats of each topic, only filled when the per-topic breakdown is enabled */
+    public Map<String, TopicStats> topicStats = new TreeMap<>();
 }
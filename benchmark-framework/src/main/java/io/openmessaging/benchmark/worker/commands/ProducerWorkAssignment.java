@@ -18,13 +18,37 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import io.openmessaging.benchmark.utils.PacingStrategy;
 import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.payload.MessageSizeDistribution;
 
 public class ProducerWorkAssignment {
     
     public byte[] payloadData;
+
+    public int messageSize;
+
+    public int payloadPoolSize;
+
+    public double payloadCompressionRatio = 1.0;
+
+    public MessageSizeDistribution messageSizeDistribution;
+
+    public boolean messageHeaderEnabled;
+
+    public boolean topicStatsEnabled;
+
+    public int topicStatsTopK;
     
     public double publishRate;
 
     public KeyDistributorType keyDistributorType;
+
+    public int maxOutstandingRequests;
+
+    public int batchSize = 1;
+
+    public int producerThreads;
+
+    public PacingStrategy pacingStrategy = PacingStrategy.PARK;
 }
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker.commands;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Stats of a single topic over one period, when the per-topic breakdown is enabled
+ */
+public class TopicStats {
+    public long messagesSent = 0;
+    public long bytesSent = 0;
+
+    public long messagesReceived = 0;
+    public long bytesReceived = 0;
+
+    // Low precision histograms that grow with the recorded values, as there can be thousands of topics
+    @JsonIgnore
+    public Histogram publishLatency = new Histogram(2);
+    public byte[] publishLatencyBytes;
+
+    @JsonIgnore
+    public Histogram endToEndLatency = new Histogram(2);
+    public byte[] endToEndLatencyBytes;
+
+    // Number of topics merged in the entry of the topics left out by the workers, 0 for the entry of a single topic
+    public int otherTopics = 0;
+
+    /**
+     * Key of the aggregate of the topics that a worker leaves out of its period stats, beyond its busiest and slowest
+     * topics
+     */
+    public static final String OTHER_TOPICS = "(other topics)";
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.openmessaging.benchmark.worker.HistogramIntervalLog;
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class HistogramLogMergerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMergeWorkersWithinWindow() throws Exception {
+        // Given
+        long start = System.currentTimeMillis();
+        File log1 = folder.newFile("worker-1.hlog");
+        File log2 = folder.newFile("worker-2.hlog");
+        try (HistogramIntervalLog worker1 = new HistogramIntervalLog(log1, "worker-1:8080");
+                HistogramIntervalLog worker2 = new HistogramIntervalLog(log2, "worker-2:8080")) {
+            worker1.write(period(start, 1_000));
+            worker1.write(period(start + 10_000, 2_000));
+            worker2.write(period(start, 3_000));
+            worker2.write(period(start + 10_000, 4_000));
+        }
+
+        // When
+        Map<String, Histogram> all = HistogramLogMerger.merge(Arrays.asList(log1, log2), 0, Double.MAX_VALUE);
+        Map<String, Histogram> secondPeriod = HistogramLogMerger.merge(Arrays.asList(log1, log2),
+                (start + 10_000) / 1000.0, Double.MAX_VALUE);
+
+        // Then
+        Histogram publish = all.get(HistogramIntervalLog.PUBLISH_LATENCY);
+        assertEquals(4, publish.getTotalCount());
+        assertEquals(4_000, publish.getMaxValue(), 1);
+        assertEquals(4, all.get(HistogramIntervalLog.END_TO_END_LATENCY).getTotalCount());
+        assertFalse(all.containsKey("worker-1:8080/publish"));
+
+        publish = secondPeriod.get(HistogramIntervalLog.PUBLISH_LATENCY);
+        assertEquals(2, publish.getTotalCount());
+        assertEquals(2_000, publish.getMinValue(), 1);
+    }
+
+    private static PeriodStats period(long startTimeMillis, long latencyMicros) {
+        PeriodStats stats = new PeriodStats();
+        for (Histogram histogram : Arrays.asList(stats.publishLatency, stats.correctedPublishLatency,
+                stats.endToEndLatency, stats.consumerQueueDelay)) {
+            histogram.recordValue(latencyMicros);
+            histogram.setStartTimeStamp(startTimeMillis);
+            histogram.setEndTimeStamp(startTimeMillis + 10_000);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class StreamedStatsCollectorTest {
+
+    @Test
+    public void testStreamedSeriesAndDrainedPeriod() {
+        // Given
+        TestResult result = new TestResult();
+        StreamedStatsCollector collector = new StreamedStatsCollector(result, 500, 1);
+
+        // When
+        collector.accept(period(1000, 100, 90, 100, 90, 5_000));
+        collector.accept(period(1500, 200, 150, 300, 240, 20_000));
+        PeriodStats drained = collector.drain();
+
+        // Then
+        assertEquals(2, result.streamedTimestamps.size());
+        assertEquals(1500L, (long) result.streamedTimestamps.get(1));
+        assertEquals(400.0, result.streamedPublishRate.get(1), 0.001);
+        assertEquals(300.0, result.streamedConsumeRate.get(1), 0.001);
+        assertEquals(10L, (long) result.streamedBacklog.get(0));
+        assertEquals(60L, (long) result.streamedBacklog.get(1));
+        assertEquals(20.0, result.streamedEndToEndLatencyMax.get(1), 0.1);
+
+        assertEquals(300, drained.messagesSent);
+        assertEquals(240, drained.messagesReceived);
+        assertEquals(300, drained.totalMessagesSent);
+        assertEquals(2, drained.endToEndLatency.getTotalCount());
+        assertEquals(20_000, drained.endToEndLatency.getMaxValue(), 20);
+    }
+
+    @Test
+    public void testTotalsCarryOverWhenNothingIsStreamed() {
+        // Given
+        StreamedStatsCollector collector = new StreamedStatsCollector(new TestResult(), 500, 1);
+        collector.accept(period(1000, 100, 90, 100, 90, 5_000));
+        collector.drain();
+
+        // When
+        PeriodStats drained = collector.drain();
+
+        // Then
+        assertEquals(0, drained.messagesSent);
+        assertEquals(100, drained.totalMessagesSent);
+        assertEquals(90, drained.totalMessagesReceived);
+    }
+
+    private static PeriodStats period(long timestampMillis, long sent, long received, long totalSent,
+            long totalReceived, long endToEndLatencyMicros) {
+        PeriodStats stats = new PeriodStats();
+        stats.timestampMillis = timestampMillis;
+        stats.messagesSent = sent;
+        stats.messagesReceived = received;
+        stats.totalMessagesSent = totalSent;
+        stats.totalMessagesReceived = totalReceived;
+        stats.endToEndLatency.recordValue(endToEndLatencyMicros);
+        return stats;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class SubscriptionLagTest {
+
+    @Test
+    public void testLagOfEachSubscription() {
+        // Given
+        Map<String, Long> sent = new TreeMap<>();
+        sent.put("topic-a", 1000L);
+        sent.put("topic-b", 500L);
+
+        Map<String, Map<String, Long>> received = new TreeMap<>();
+        received.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-1", 1000L);
+        received.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-2", 400L);
+        received.computeIfAbsent("topic-b", x -> new TreeMap<>()).put("sub-1", 500L);
+
+        // When
+        Map<String, Long> lags = SubscriptionLag.of(sent, received);
+
+        // Then
+        assertEquals(0L, (long) lags.get("topic-a/sub-1"));
+        assertEquals(600L, (long) lags.get("topic-a/sub-2"));
+        assertEquals(0L, (long) lags.get("topic-b/sub-1"));
+        assertEquals(600L, SubscriptionLag.total(lags));
+    }
+
+    @Test
+    public void testSlowestSubscriptionRatio() {
+        // Given
+        Map<String, Long> previousSent = new TreeMap<>();
+        previousSent.put("topic-a", 1000L);
+        Map<String, Map<String, Long>> previousReceived = new TreeMap<>();
+        previousReceived.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-1", 1000L);
+        previousReceived.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-2", 1000L);
+
+        Map<String, Long> sent = new TreeMap<>();
+        sent.put("topic-a", 2000L);
+        Map<String, Map<String, Long>> received = new TreeMap<>();
+        received.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-1", 2000L);
+        received.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-2", 1500L);
+
+        // When
+        double ratio = SubscriptionLag.minReceiveRatio(previousSent, previousReceived, sent, received);
+
+        // Then: the total received matches 1.5x the sent messages, but one subscription only got half of them
+        assertEquals(0.5, ratio, 1e-9);
+    }
+}
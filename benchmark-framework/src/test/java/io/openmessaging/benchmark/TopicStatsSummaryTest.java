@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+public class TopicStatsSummaryTest {
+
+    @Test
+    public void testTopKAndSpread() {
+        // Given
+        Map<String, TopicStats> topicStats = new TreeMap<>();
+        for (int i = 1; i <= 1000; i++) {
+            TopicStats ts = new TopicStats();
+            ts.messagesSent = 10;
+            ts.messagesReceived = i * 10;
+            ts.endToEndLatency.recordValue(i == 7 ? 900_000 : 1_000);
+            topicStats.put("topic-" + i, ts);
+        }
+
+        // When
+        TopicStatsSummary summary = TopicStatsSummary.of(topicStats, 10.0, 3);
+
+        // Then
+        assertEquals(3, summary.busiestTopics.size());
+        assertEquals("topic-1000", summary.busiestTopics.keySet().iterator().next());
+        assertEquals(1000.0, summary.busiestTopics.get("topic-1000"), 0.0);
+        assertEquals(998.0, new ArrayList<>(summary.busiestTopics.values()).get(2), 0.0);
+        assertEquals("topic-7", summary.slowestTopics.keySet().iterator().next());
+
+        assertEquals(1.0, summary.publishRate.min, 0.0);
+        assertEquals(0.0, summary.publishRate.stdDev, 1e-9);
+        assertEquals(1.0, summary.consumeRate.min, 0.0);
+        assertEquals(500.5, summary.consumeRate.avg, 1e-9);
+        assertEquals(1000.0, summary.consumeRate.max, 0.0);
+    }
+
+    @Test
+    public void testOtherTopicsAreOnlyInTheSpread() {
+        // Given 2 topics, and 8 others merged by a worker at an average of 100 msg/s
+        Map<String, TopicStats> topicStats = new TreeMap<>();
+        TopicStats busiest = new TopicStats();
+        busiest.messagesReceived = 5000;
+        topicStats.put("topic-1", busiest);
+        TopicStats slowest = new TopicStats();
+        slowest.messagesReceived = 100;
+        slowest.endToEndLatency.recordValue(900_000);
+        topicStats.put("topic-2", slowest);
+        TopicStats others = new TopicStats();
+        others.messagesReceived = 8000;
+        others.endToEndLatency.recordValue(1_000);
+        others.otherTopics = 8;
+        topicStats.put(TopicStats.OTHER_TOPICS, others);
+
+        // When
+        TopicStatsSummary summary = TopicStatsSummary.of(topicStats, 10.0, 3);
+
+        // Then
+        assertEquals(2, summary.busiestTopics.size());
+        assertEquals(500.0, summary.busiestTopics.get("topic-1"), 0.0);
+        assertEquals("topic-2", summary.slowestTopics.keySet().iterator().next());
+        assertEquals(10.0, summary.consumeRate.min, 0.0);
+        assertEquals(131.0, summary.consumeRate.avg, 1e-9);
+        assertEquals(500.0, summary.consumeRate.max, 0.0);
+    }
+
+    @Test
+    public void testNoTopics() {
+        TopicStatsSummary summary = TopicStatsSummary.of(new TreeMap<>(), 10.0, 3);
+        assertEquals(0, summary.busiestTopics.size());
+        assertEquals(0.0, summary.consumeRate.max, 0.0);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConsumerWorkTest {
+
+    @Test
+    public void testSpinLastsForDuration() {
+        // Given
+        ConsumerWork work = new ConsumerWork();
+        work.type = ConsumerWork.Type.SPIN;
+        work.durationMicros = 2_000;
+
+        // When
+        long start = System.nanoTime();
+        work.perform();
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        assertTrue(elapsed >= TimeUnit.MICROSECONDS.toNanos(work.durationMicros));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreadsAreRejected() {
+        // Given
+        ConsumerWork work = new ConsumerWork();
+        work.type = ConsumerWork.Type.SLEEP;
+        work.threads = -1;
+
+        // When
+        work.validate();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the cost of reading the epoch time in nanoseconds through {@link Instant#now()}, as the consumer callback
+ * used to do for every message, against the {@link EpochClock}.
+ * <p>
+ * The build writes the test classpath of the module to <code>target/classpath.txt</code>. From the root of the
+ * project:
+ *
+ * <pre>
+ * mvn -B test-compile
+ * cd benchmark-framework
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     io.openmessaging.benchmark.utils.EpochClockBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpochClockBenchmark {
+
+    private EpochClock epochClock;
+
+    @Setup
+    public void setup() {
+        epochClock = new EpochClock(10, TimeUnit.SECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        epochClock.close();
+    }
+
+    @Benchmark
+    public long instantNow() {
+        Instant currentTime = Instant.now();
+        return TimeUnit.SECONDS.toNanos(currentTime.getEpochSecond()) + currentTime.getNano();
+    }
+
+    @Benchmark
+    public long epochClock() {
+        return epochClock.currentTimeNanos();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(EpochClockBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class EpochClockTest {
+
+    @Test
+    public void testClockFollowsSystemClock() {
+        try (EpochClock epochClock = new EpochClock(1, TimeUnit.HOURS)) {
+            // When
+            long before = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+            long now = epochClock.currentTimeNanos();
+            long after = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() + 1);
+
+            // Then
+            assertTrue(now >= before - TimeUnit.MILLISECONDS.toNanos(1) && now <= after);
+        }
+    }
+
+    @Test
+    public void testPreemptedSampleIsRejected() {
+        // Given
+        FakeTime time = new FakeTime();
+        time.preemptAt(10, TimeUnit.MILLISECONDS.toNanos(5));
+
+        // When
+        try (EpochClock epochClock = new EpochClock(1, TimeUnit.HOURS, time::nanoTime, time::currentTimeMillis)) {
+            long now = epochClock.currentTimeNanos();
+
+            // Then
+            assertEquals(time.epochNanos(), now, TimeUnit.MICROSECONDS.toNanos(2));
+        }
+    }
+
+    @Test
+    public void testRecalibrationSlewsTowardTheSystemClock() {
+        // Given
+        FakeTime time = new FakeTime();
+        try (EpochClock epochClock = new EpochClock(1, TimeUnit.HOURS, time::nanoTime, time::currentTimeMillis)) {
+            time.epochOffsetNanos += TimeUnit.MILLISECONDS.toNanos(1);
+
+            // When
+            long nanoTimeBefore = time.nanos;
+            long before = epochClock.currentTimeNanos();
+            epochClock.calibrate();
+            long after = epochClock.currentTimeNanos();
+            long elapsed = time.nanos - nanoTimeBefore;
+
+            // Then
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(1), epochClock.getLastCalibrationErrorNanos(),
+                    TimeUnit.MICROSECONDS.toNanos(2));
+            assertEquals("The clock should not jump", elapsed, after - before, TimeUnit.MICROSECONDS.toNanos(2));
+
+            time.nanos += TimeUnit.HOURS.toNanos(1);
+            assertEquals(time.epochNanos(), epochClock.currentTimeNanos(), TimeUnit.MICROSECONDS.toNanos(2));
+        }
+    }
+
+    /**
+     * Clocks that advance by a fixed step at each reading, with the system clock at a millisecond resolution, and an
+     * optional preemption of the reading thread
+     */
+    private static class FakeTime {
+        long nanos = 0;
+        long epochOffsetNanos = 1_600_000_000_123_456_789L;
+        long readings = 0;
+        long preemptAtReading = -1;
+        long preemptionNanos = 0;
+
+        void preemptAt(long reading, long nanos) {
+            this.preemptAtReading = reading;
+            this.preemptionNanos = nanos;
+        }
+
+        long nanoTime() {
+            advance();
+            return nanos;
+        }
+
+        long currentTimeMillis() {
+            advance();
+            return TimeUnit.NANOSECONDS.toMillis(epochNanos());
+        }
+
+        long epochNanos() {
+            return nanos + epochOffsetNanos;
+        }
+
+        private void advance() {
+            nanos += 100;
+            if (++readings == preemptAtReading) {
+                nanos += preemptionNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RateSweepTest {
+
+    @Test
+    public void testFractionsAreRelativeToMaxRate() {
+        // Given
+        RateSweep sweep = new RateSweep();
+        sweep.fractions = Arrays.asList(0.1, 0.5, 1.0);
+
+        // When
+        sweep.validate();
+
+        // Then
+        assertTrue(sweep.isRelative());
+        assertEquals(3, sweep.steps());
+        assertEquals(2_000, sweep.rate(0, 20_000), 0.001);
+        assertEquals(20_000, sweep.rate(2, 20_000), 0.001);
+    }
+
+    @Test
+    public void testRatesAreAbsolute() {
+        // Given
+        RateSweep sweep = new RateSweep();
+        sweep.rates = Arrays.asList(1_000.0, 5_000.0);
+
+        // When
+        sweep.validate();
+
+        // Then
+        assertFalse(sweep.isRelative());
+        assertEquals(5_000, sweep.rate(1, 20_000), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRatesAndFractionsAreExclusive() {
+        // Given
+        RateSweep sweep = new RateSweep();
+        sweep.rates = Arrays.asList(1_000.0);
+        sweep.fractions = Arrays.asList(0.5);
+
+        // When
+        sweep.validate();
+    }
+}
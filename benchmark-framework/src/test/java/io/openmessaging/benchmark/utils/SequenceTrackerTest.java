@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SequenceTrackerTest {
+
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder duplicated = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+
+    private SequenceTracker tracker;
+
+    @Before
+    public void setup() {
+        tracker = new SequenceTracker(64, 16, lost, duplicated, outOfOrder);
+    }
+
+    @Test
+    public void testInOrder() {
+        // When
+        for (long i = 0; i < 1000; i++) {
+            tracker.record(i);
+        }
+
+        // Then
+        assertCounts(0, 0, 0);
+    }
+
+    @Test
+    public void testDuplicatesInAndBelowWindow() {
+        // When
+        for (long i = 0; i < 200; i++) {
+            tracker.record(i);
+        }
+        tracker.record(190);
+        tracker.record(10);
+
+        // Then
+        assertCounts(0, 2, 0);
+    }
+
+    @Test
+    public void testReorderingWithinWindow() {
+        // When
+        tracker.record(0);
+        tracker.record(2);
+        tracker.record(1);
+        tracker.record(3);
+
+        // Then
+        assertCounts(0, 0, 1);
+    }
+
+    @Test
+    public void testGapIsLostOnceItLeavesTheWindow() {
+        // When
+        for (long i = 0; i < 100; i++) {
+            if (i != 10 && i != 11) {
+                tracker.record(i);
+            }
+        }
+
+        // Then
+        assertCounts(2, 0, 0);
+    }
+
+    @Test
+    public void testLateArrivalIsTakenOutOfTheLostCount() {
+        // Given
+        for (long i = 0; i < 100; i++) {
+            if (i < 10 || i > 12) {
+                tracker.record(i);
+            }
+        }
+
+        // When
+        tracker.record(11);
+        tracker.record(11);
+
+        // Then
+        assertCounts(2, 1, 1);
+    }
+
+    @Test
+    public void testJumpPastTheWholeWindow() {
+        // When
+        tracker.record(0);
+        tracker.record(1000);
+        tracker.record(500);
+
+        // Then: 1 to 936 left the window, 937 to 999 may still arrive
+        assertCounts(935, 0, 1);
+    }
+
+    @Test
+    public void testIgnoredOutOfOrderStillCountsLateArrivals() {
+        // Given
+        tracker.ignoreOutOfOrder();
+        for (long i = 0; i < 100; i++) {
+            if (i < 10 || i > 12) {
+                tracker.record(i);
+            }
+        }
+
+        // When
+        tracker.record(11);
+        tracker.record(99);
+        tracker.record(98);
+
+        // Then
+        assertCounts(2, 2, 0);
+    }
+
+    private void assertCounts(long expectedLost, long expectedDuplicated, long expectedOutOfOrder) {
+        assertEquals("lost", expectedLost, lost.sum());
+        assertEquals("duplicated", expectedDuplicated, duplicated.sum());
+        assertEquals("out of order", expectedOutOfOrder, outOfOrder.sum());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+public class StripedRateLimiterTest {
+
+    @Test
+    public void testSingleStripeSchedule() {
+        // Given
+        StripedRateLimiter limiter = new StripedRateLimiter(1, 1_000_000);
+        StripedRateLimiter.Stripe stripe = limiter.getStripe(0);
+
+        // When
+        long first = stripe.acquire();
+        long second = stripe.acquire();
+        long third = stripe.acquire();
+
+        // Then
+        assertEquals(1_000, second - first);
+        assertEquals(1_000, third - second);
+    }
+
+    @Test
+    public void testStripesAreStaggered() {
+        // Given
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 4_000_000);
+
+        // When
+        long[] times = new long[4];
+        for (int i = 0; i < 4; i++) {
+            times[i] = limiter.getStripe(i).acquire();
+        }
+
+        // Then each stripe runs at 1M/s, shifted by a quarter of its interval
+        for (int i = 1; i < 4; i++) {
+            assertEquals(250, times[i] - times[i - 1]);
+        }
+    }
+
+    @Test
+    public void testAggregateRateAccuracy() throws Exception {
+        // Given
+        double rate = 40_000;
+        long startTime = System.nanoTime();
+        StripedRateLimiter limiter = new StripedRateLimiter(4, rate);
+
+        // When
+        long permits = acquireUntil(limiter, startTime + TimeUnit.SECONDS.toNanos(2));
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        // Then
+        assertWithinOnePercent(rate * elapsedNanos / TimeUnit.SECONDS.toNanos(1), permits);
+    }
+
+    @Test
+    public void testRateAdjustmentIsSplitAcrossStripes() throws Exception {
+        // Given
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 10_000);
+        acquireUntil(limiter, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500));
+
+        // When
+        long startTime = System.nanoTime();
+        limiter.setRate(30_000);
+        long permits = acquireUntil(limiter, startTime + TimeUnit.SECONDS.toNanos(2));
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        // Then
+        assertEquals(30_000, limiter.getRate(), 0.0);
+        assertWithinOnePercent(30_000.0 * elapsedNanos / TimeUnit.SECONDS.toNanos(1), permits);
+    }
+
+    @Test
+    public void testRateAdjustmentInterruptsWaitOnOldSchedule() throws Exception {
+        // Given a stripe waiting for a permit that is due 2 s after the first one
+        StripedRateLimiter limiter = new StripedRateLimiter(1, 0.5);
+        StripedRateLimiter.Stripe stripe = limiter.getStripe(0);
+        stripe.acquire();
+        AtomicLong acquiredTime = new AtomicLong();
+        Thread thread = new Thread(() -> {
+            stripe.acquire();
+            acquiredTime.set(System.nanoTime());
+        });
+        thread.start();
+        Thread.sleep(200);
+
+        // When
+        long rateChangeTime = System.nanoTime();
+        limiter.setRate(1_000);
+        thread.join();
+
+        // Then the permit follows the new schedule instead of the end of the old wait
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(acquiredTime.get() - rateChangeTime);
+        assertTrue("Permit acquired " + waitMillis + " ms after the rate change", waitMillis < 500);
+    }
+
+    @Test
+    public void testPacingStrategiesWaitUntilPermitIsDue() {
+        for (PacingStrategy pacingStrategy : PacingStrategy.values()) {
+            // Given
+            StripedRateLimiter limiter = new StripedRateLimiter(1, 10_000, pacingStrategy);
+            StripedRateLimiter.Stripe stripe = limiter.getStripe(0);
+
+            // When / Then
+            for (int i = 0; i < 100; i++) {
+                long intendedTime = stripe.acquire();
+                assertTrue(pacingStrategy + " returned before the permit was due", System.nanoTime() >= intendedTime);
+            }
+        }
+    }
+
+    /**
+     * Run one thread per stripe, each acquiring permits and waiting for them to be due, until the deadline has passed.
+     *
+     * @return the total number of permits that were granted
+     */
+    private static long acquireUntil(StripedRateLimiter limiter, long deadline) throws InterruptedException {
+        LongAdder permits = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < limiter.getNumberOfStripes(); i++) {
+            StripedRateLimiter.Stripe stripe = limiter.getStripe(i);
+            Thread thread = new Thread(() -> {
+                long count = 0;
+                while (System.nanoTime() - deadline < 0) {
+                    stripe.acquire();
+                    count++;
+                }
+                permits.add(count);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return permits.sum();
+    }
+
+    private static void assertWithinOnePercent(double expected, long actual) {
+        double error = Math.abs(actual - expected) / expected;
+        assertTrue(String.format("Expected %.0f permits, got %d (error %.3f%%)", expected, actual, error * 100),
+                error < 0.01);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+public class MessageHeaderTest {
+
+    @Test
+    public void testRoundTrip() {
+        // Given
+        byte[] payload = new byte[100];
+        int producerId = MessageHeader.producerId(0xBEEF, 7);
+
+        // When
+        MessageHeader.write(payload, 1_600_000_000_123_456_789L, producerId, Long.MAX_VALUE - 1);
+
+        // Then
+        assertTrue(MessageHeader.isPresent(payload));
+        assertEquals(1_600_000_000_123_456_789L, MessageHeader.getSendTimeEpochNanos(payload));
+        assertEquals(0xBEEF0007, MessageHeader.getProducerId(payload));
+        assertEquals(Long.MAX_VALUE - 1, MessageHeader.getSequence(payload));
+    }
+
+    @Test
+    public void testReadFromByteBuffer() {
+        // Given
+        byte[] frame = new byte[110];
+        byte[] payload = new byte[100];
+        MessageHeader.write(payload, 42L, 7, 3L);
+        System.arraycopy(payload, 0, frame, 10, payload.length);
+
+        // When
+        ByteBuffer view = ByteBuffer.wrap(frame, 10, 100).slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        // Then
+        assertTrue(MessageHeader.isPresent(view));
+        assertEquals(42L, MessageHeader.getSendTimeEpochNanos(view));
+        assertEquals(7, MessageHeader.getProducerId(view));
+        assertEquals(3L, MessageHeader.getSequence(view));
+        assertFalse(MessageHeader.isPresent(ByteBuffer.wrap(new byte[100])));
+    }
+
+    @Test
+    public void testMissingHeader() {
+        assertFalse(MessageHeader.isPresent(new byte[100]));
+        assertFalse(MessageHeader.isPresent(new byte[MessageHeader.SIZE - 1]));
+    }
+
+    @Test
+    public void testProducerIdOfLastWorkerAndProducer() {
+        assertEquals(0xFFFFFFFF,
+                MessageHeader.producerId(MessageHeader.MAX_WORKER_ID, MessageHeader.MAX_PRODUCER_INDEX));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProducerIndexOutOfRangeIsRejected() {
+        MessageHeader.producerId(0, MessageHeader.MAX_PRODUCER_INDEX + 1);
+    }
+}
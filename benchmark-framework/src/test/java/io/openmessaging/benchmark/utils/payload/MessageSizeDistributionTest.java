@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import org.junit.Test;
+
+public class MessageSizeDistributionTest {
+
+    @Test
+    public void testLognormalMatchesMeanAndStaysWithinBounds() {
+        // Given
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.LOGNORMAL;
+        distribution.mean = 2048;
+        distribution.stdDev = 4096;
+        distribution.minSize = 200;
+        distribution.maxSize = 64 * 1024;
+
+        // When
+        IntSupplier sampler = distribution.sampler(new Random(1));
+
+        // Then
+        for (int i = 0; i < 100_000; i++) {
+            int size = sampler.getAsInt();
+            assertTrue(size >= 200 && size <= 64 * 1024);
+        }
+        assertEquals(2048, distribution.estimateMeanSize(), 2048 * 0.05);
+    }
+
+    @Test
+    public void testEmpiricalFollowsWeights() {
+        // Given
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.EMPIRICAL;
+        distribution.sizes = new int[] { 100, 10_000 };
+        distribution.weights = new double[] { 3, 1 };
+
+        // When
+        double mean = distribution.estimateMeanSize();
+
+        // Then
+        assertEquals(0.75 * 100 + 0.25 * 10_000, mean, 50);
+    }
+}
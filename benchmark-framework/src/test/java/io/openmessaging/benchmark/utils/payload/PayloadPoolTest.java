@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+public class PayloadPoolTest {
+
+    @Test
+    public void testGeneratedPayloadsAreDistinct() {
+        // Given
+        PayloadPool pool = PayloadPool.generate(16, 1024, new RandomPayloadGenerator(1.0, new Random(1)));
+
+        // Then
+        assertEquals(16, pool.size());
+        assertEquals(1024, pool.getAverageSize(), 0.0);
+        for (int i = 1; i < pool.size(); i++) {
+            assertFalse(Arrays.equals(pool.get(0), pool.get(i)));
+        }
+    }
+
+    @Test
+    public void testCompressionRatio() {
+        for (double ratio : new double[] { 1.0, 2.0, 4.0 }) {
+            // Given
+            RandomPayloadGenerator generator = new RandomPayloadGenerator(ratio, new Random(1));
+
+            // When
+            byte[] payload = generator.generate(64 * 1024);
+
+            // Then
+            double actualRatio = payload.length / (double) compressedSize(payload);
+            assertTrue(String.format("Expected ratio %.1f, got %.2f", ratio, actualRatio),
+                    Math.abs(actualRatio - ratio) / ratio < 0.1);
+        }
+    }
+
+    @Test
+    public void testCursorWrapsAround() {
+        // Given
+        PayloadPool pool = PayloadPool.generate(3, 10, new RandomPayloadGenerator(1.0));
+        PayloadPool.Cursor cursor = pool.cursor(2);
+
+        // When / Then
+        assertSame(pool.get(2), cursor.next());
+        assertSame(pool.get(0), cursor.next());
+        assertSame(pool.get(1), cursor.next());
+        assertSame(pool.get(2), cursor.next());
+    }
+
+    private static int compressedSize(byte[] payload) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(payload);
+        deflater.finish();
+
+        byte[] buffer = new byte[payload.length * 2];
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(buffer);
+        }
+        deflater.end();
+        return size;
+    }
+}
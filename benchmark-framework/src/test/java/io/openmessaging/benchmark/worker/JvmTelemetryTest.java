@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class JvmTelemetryTest {
+
+    @Test
+    public void testSampleCoversThePeriodSinceThePreviousOne() throws Exception {
+        try (JvmTelemetry telemetry = new JvmTelemetry()) {
+            // Given
+            byte[][] garbage = new byte[64][];
+            for (int i = 0; i < garbage.length; i++) {
+                garbage[i] = new byte[64 * 1024];
+            }
+
+            // When
+            PeriodStats first = new PeriodStats();
+            telemetry.sample(first);
+            PeriodStats second = new PeriodStats();
+            telemetry.sample(second);
+
+            // Then
+            assertTrue(first.allocatedBytes >= garbage.length * 64 * 1024);
+            assertTrue(second.allocatedBytes < first.allocatedBytes);
+            assertTrue(second.heapUsedBytes > 0);
+            assertTrue(second.heapCommittedBytes >= second.heapUsedBytes);
+            assertTrue(second.threadCount > 0);
+        }
+    }
+
+    @Test
+    public void testGcIsCounted() throws Exception {
+        try (JvmTelemetry telemetry = new JvmTelemetry()) {
+            // Given
+            PeriodStats stats = new PeriodStats();
+
+            // When
+            System.gc();
+            telemetry.sample(stats);
+
+            // Then
+            assertTrue(stats.gcCount >= 1);
+            assertTrue(stats.gcTimeMillis >= 0);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.apache.bookkeeper.stats.OpStatsData;
+import org.apache.bookkeeper.stats.OpStatsLogger;
+import org.junit.Test;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testIntervalAndCumulativeFromSingleRecord() throws Exception {
+        // Given
+        LatencyRecorder recorder = new LatencyRecorder(null);
+        Thread other = new Thread(() -> recorder.record(2_000));
+
+        // When
+        recorder.record(1_000);
+        other.start();
+        other.join();
+        Histogram firstPeriod = recorder.getIntervalHistogram();
+
+        recorder.record(3_000);
+        recorder.snapshot();
+        Histogram secondPeriod = recorder.getIntervalHistogram();
+        Histogram cumulative = recorder.getCumulativeHistogram();
+
+        // Then
+        assertEquals(2, firstPeriod.getTotalCount());
+        assertEquals(2_000, firstPeriod.getMaxValue(), 1);
+        assertEquals(1, secondPeriod.getTotalCount());
+        assertEquals(3_000, secondPeriod.getMaxValue(), 1);
+        assertEquals(3, cumulative.getTotalCount());
+        assertEquals(1_000, cumulative.getMinValue(), 1);
+    }
+
+    @Test
+    public void testResetDropsRecordedValues() {
+        // Given
+        LatencyRecorder recorder = new LatencyRecorder(null);
+        recorder.record(1_000);
+        recorder.snapshot();
+        recorder.record(2_000);
+
+        // When
+        recorder.reset();
+
+        // Then
+        assertEquals(0, recorder.getIntervalHistogram().getTotalCount());
+        assertEquals(0, recorder.getCumulativeHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testValuesAreFedOnceToTheStats() {
+        // Given
+        CountingOpStatsLogger stats = new CountingOpStatsLogger();
+        LatencyRecorder recorder = new LatencyRecorder(stats);
+        recorder.record(1_000);
+        recorder.record(1_000);
+
+        // When
+        recorder.getIntervalHistogram();
+        recorder.snapshot();
+        recorder.record(2_000);
+        recorder.getCumulativeHistogram();
+        recorder.snapshot();
+        recorder.snapshot();
+
+        // Then
+        assertEquals(3, stats.events.sum());
+        assertEquals(4_000, stats.totalMicros.sum(), 2);
+    }
+
+    private static final class CountingOpStatsLogger implements OpStatsLogger {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+
+        @Override
+        public void registerSuccessfulEvent(long eventLatency, TimeUnit unit) {
+            events.increment();
+            totalMicros.add(unit.toMicros(eventLatency));
+        }
+
+        @Override
+        public void registerFailedEvent(long eventLatency, TimeUnit unit) {
+        }
+
+        @Override
+        public void registerSuccessfulValue(long value) {
+        }
+
+        @Override
+        public void registerFailedValue(long value) {
+        }
+
+        @Override
+        public OpStatsData toOpStatsData() {
+            return null;
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+}
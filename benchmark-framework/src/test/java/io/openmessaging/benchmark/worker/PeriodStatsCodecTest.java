@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+public class PeriodStatsCodecTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // Given
+        PeriodStats stats = new PeriodStats();
+        stats.timestampMillis = 1_600_000_000_000L;
+        stats.messagesSent = 1000;
+        stats.bytesReceived = 2048;
+        stats.messagesOutOfOrder = 3;
+        stats.negativeEndToEndLatencies = 4;
+        stats.maxPauseMicros = 120_000;
+        stats.heapUsedBytes = 64L << 20;
+        stats.totalMessagesSentPerTopic.put("topic-a", 5000L);
+        stats.totalMessagesReceivedPerSubscription.computeIfAbsent("topic-a", x -> new TreeMap<>()).put("sub-1",
+                4000L);
+        stats.publishLatency.recordValue(1_500);
+        stats.endToEndLatency.recordValue(25_000);
+        stats.endToEndLatency.recordValue(3_600_000_000L);
+
+        TopicStats topicStats = new TopicStats();
+        topicStats.messagesReceived = 42;
+        topicStats.otherTopics = 3;
+        topicStats.endToEndLatency.recordValue(7_000);
+        stats.topicStats.put("topic-a", topicStats);
+
+        // When
+        PeriodStats decoded = PeriodStatsCodec.decode(copy(PeriodStatsCodec.encode(stats)));
+
+        // Then
+        assertEquals(stats.timestampMillis, decoded.timestampMillis);
+        assertEquals(1000, decoded.messagesSent);
+        assertEquals(2048, decoded.bytesReceived);
+        assertEquals(3, decoded.messagesOutOfOrder);
+        assertEquals(4, decoded.negativeEndToEndLatencies);
+        assertEquals(120_000, decoded.maxPauseMicros);
+        assertEquals(64L << 20, decoded.heapUsedBytes);
+        assertEquals(5000L, (long) decoded.totalMessagesSentPerTopic.get("topic-a"));
+        assertEquals(4000L, (long) decoded.totalMessagesReceivedPerSubscription.get("topic-a").get("sub-1"));
+        assertEquals(stats.publishLatency, decoded.publishLatency);
+        assertEquals(stats.endToEndLatency, decoded.endToEndLatency);
+        assertEquals(0, decoded.consumerQueueDelay.getTotalCount());
+        assertEquals(42, decoded.topicStats.get("topic-a").messagesReceived);
+        assertEquals(3, decoded.topicStats.get("topic-a").otherTopics);
+        assertEquals(topicStats.endToEndLatency, decoded.topicStats.get("topic-a").endToEndLatency);
+    }
+
+    @Test
+    public void testBufferGrowsForManyTopics() throws Exception {
+        // Given
+        PeriodStats stats = new PeriodStats();
+        for (int i = 0; i < 5_000; i++) {
+            TopicStats topicStats = new TopicStats();
+            topicStats.publishLatency.recordValue(i);
+            stats.topicStats.put(String.format("topic-%05d", i), topicStats);
+        }
+
+        // When
+        PeriodStats decoded = PeriodStatsCodec.decode(copy(PeriodStatsCodec.encode(stats)));
+
+        // Then
+        assertEquals(5_000, decoded.topicStats.size());
+        assertEquals(4_999, decoded.topicStats.get("topic-04999").publishLatency.getMaxValue(), 50);
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownVersionIsRejected() throws Exception {
+        // Given
+        ByteBuffer encoded = copy(PeriodStatsCodec.encode(new PeriodStats()));
+        encoded.put(4, (byte) (PeriodStatsCodec.VERSION + 1));
+
+        // When
+        PeriodStatsCodec.decode(encoded);
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer).flip();
+        return copy;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import io.openmessaging.benchmark.driver.kafka.KafkaBenchmarkProducer;
+
+/**
+ * Compare the per-message allocation of sending through the Kafka driver and tracking the completion with a
+ * {@link CompletableFuture} and a capturing lambda, as {@link LocalWorker} used to do, against a reusable
+ * {@link SendCompletionListener}.
+ * <p>
+ * Both benchmarks send through the same {@link KafkaBenchmarkProducer}, on top of a {@link MockProducer} that
+ * completes each message as soon as it is sent, so the difference of their <code>gc.alloc.rate.norm</code> is the
+ * cost of tracking the completion. The other drivers can't be run without a broker.
+ * <p>
+ * The build writes the test classpath of the module to <code>target/classpath.txt</code>. From the root of the
+ * project:
+ *
+ * <pre>
+ * mvn -B test-compile
+ * cd benchmark-framework
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     io.openmessaging.benchmark.worker.SendCompletionBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SendCompletionBenchmark {
+
+    private final byte[] payload = new byte[1024];
+
+    private MockProducer<String, byte[]> kafkaProducer;
+    private BenchmarkProducer producer;
+    private SendCompletionListener listener;
+
+    private Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        this.kafkaProducer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        this.producer = new KafkaBenchmarkProducer(kafkaProducer, "test");
+        this.listener = new SendCompletionListener() {
+            @Override
+            public void sendCompleted(long sendTime, long intendedSendTime, int payloadSize) {
+                blackhole.consume(sendTime - intendedSendTime + payloadSize);
+            }
+
+            @Override
+            public void sendFailed(Throwable cause) {
+                blackhole.consume(cause);
+            }
+        };
+    }
+
+    @Benchmark
+    public void futureCompletion() {
+        final long intendedSendTime = System.nanoTime();
+        final long sendTime = System.nanoTime();
+        producer.sendAsync(Optional.ofNullable(null), payload).thenRun(() -> {
+            blackhole.consume(sendTime - intendedSendTime + payload.length);
+        }).exceptionally(ex -> {
+            blackhole.consume(ex);
+            return null;
+        });
+        // The mock keeps the history of the sent records
+        kafkaProducer.clear();
+    }
+
+    @Benchmark
+    public void listenerCompletion() {
+        long intendedSendTime = System.nanoTime();
+        producer.sendAsync(null, payload, System.nanoTime(), intendedSendTime, listener);
+        kafkaProducer.clear();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().include(SendCompletionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.utils.payload.MessageHeader;
+
+public class SequenceRecorderTest {
+
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder duplicated = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+
+    // Wide enough for the sequences of the threads to drift apart, however they are scheduled
+    private final SequenceRecorder recorder = new SequenceRecorder(128 * 1024, 100, lost, duplicated, outOfOrder);
+
+    @Test
+    public void testSequencesOfOneProducerAcrossThreads() throws Exception {
+        // Given
+        int producerId = MessageHeader.producerId(3, 7);
+        Thread odd = new Thread(() -> {
+            for (long i = 1; i < 100_000; i += 2) {
+                recorder.record(producerId, i);
+            }
+        });
+
+        // When
+        odd.start();
+        for (long i = 0; i < 100_000; i += 2) {
+            recorder.record(producerId, i);
+        }
+        odd.join();
+        recorder.drain();
+
+        // Then the order across the two threads is not known, so nothing is out-of-order
+        assertEquals(0, lost.sum());
+        assertEquals(0, duplicated.sum());
+        assertEquals(0, outOfOrder.sum());
+    }
+
+    @Test
+    public void testOutOfOrderIsCountedOnOneThread() {
+        // Given
+        int producerId = MessageHeader.producerId(0, 0);
+
+        // When
+        recorder.record(producerId, 0);
+        recorder.record(producerId, 2);
+        recorder.record(producerId, 1);
+        recorder.drain();
+
+        // Then
+        assertEquals(1, outOfOrder.sum());
+    }
+
+    @Test
+    public void testProducersAreTrackedApart() {
+        // Given
+        int first = MessageHeader.producerId(0, 0);
+        int second = MessageHeader.producerId(1, 0);
+
+        // When
+        for (long i = 0; i < 10_000; i++) {
+            recorder.record(first, i);
+            recorder.record(second, i);
+        }
+        recorder.record(first, 10_001);
+        recorder.record(second, 42);
+        recorder.drain();
+
+        // Then
+        assertEquals(0, lost.sum());
+        assertEquals(1, duplicated.sum());
+        assertEquals(0, outOfOrder.sum());
+    }
+}
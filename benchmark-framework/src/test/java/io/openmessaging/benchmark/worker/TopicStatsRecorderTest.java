@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.TopicStats;
+
+public class TopicStatsRecorderTest {
+
+    @Test
+    public void testOtherTopicsAreMerged() {
+        // Given
+        Map<String, TopicStats> topicStats = new TreeMap<>();
+        for (int i = 1; i <= 1000; i++) {
+            TopicStats ts = new TopicStats();
+            ts.messagesSent = 10;
+            ts.messagesReceived = i * 10;
+            ts.endToEndLatency.recordValue(i == 7 ? 900_000 : 1_000);
+            topicStats.put("topic-" + i, ts);
+        }
+
+        // When
+        TopicStatsRecorder.keepTopK(topicStats, 3);
+
+        // Then the 3 busiest, the slowest and 2 of the topics tied on latency are kept, besides the aggregate
+        assertEquals(7, topicStats.size());
+        assertTrue(topicStats.containsKey("topic-1000"));
+        assertTrue(topicStats.containsKey("topic-998"));
+        assertTrue(topicStats.containsKey("topic-7"));
+
+        TopicStats others = topicStats.get(TopicStats.OTHER_TOPICS);
+        assertEquals(994, others.otherTopics);
+        assertEquals(9940, others.messagesSent);
+        assertEquals(994, others.endToEndLatency.getTotalCount());
+        assertEquals(5_005_000, topicStats.values().stream().mapToLong(ts -> ts.messagesReceived).sum());
+    }
+
+    @Test
+    public void testFewTopicsAreAllKept() {
+        // Given
+        Map<String, TopicStats> topicStats = new TreeMap<>();
+        for (int i = 0; i < 6; i++) {
+            topicStats.put("topic-" + i, new TopicStats());
+        }
+
+        // When
+        TopicStatsRecorder.keepTopK(topicStats, 3);
+
+        // Then
+        assertEquals(6, topicStats.size());
+    }
+}
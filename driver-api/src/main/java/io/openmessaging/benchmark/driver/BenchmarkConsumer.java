@@ -20,4 +20,37 @@ package io.openmessaging.benchmark.driver;
 
 public interface BenchmarkConsumer extends AutoCloseable {
 
+    /**
+     * Whether the client of the driver can stop the delivery of messages, with {@link #pause()} and {@link #resume()}.
+     * When it can't, the worker blocks the driver thread inside the callback instead.
+     *
+     * @return true if the driver implements {@link #pause()} and {@link #resume()}
+     */
+    default boolean supportsPause() {
+        return false;
+    }
+
+    /**
+     * Stop delivering messages to the callback, leaving them on the broker so that a backlog builds up.
+     * <p>
+     * Drivers should override this method, along with {@link #resume()} and {@link #supportsPause()}, when their client
+     * can stop the delivery, e.g. by pausing the fetches or stopping the session. Messages already delivered to the
+     * client may still reach the callback after this method returns. The default implementation does nothing.
+     *
+     * @throws Exception
+     *             if the consumer could not be paused
+     */
+    default void pause() throws Exception {
+    }
+
+    /**
+     * Resume the delivery of messages to the callback after a call to {@link #pause()}. The default implementation
+     * does nothing.
+     *
+     * @throws Exception
+     *             if the consumer could not be resumed
+     */
+    default void resume() throws Exception {
+    }
+
 }
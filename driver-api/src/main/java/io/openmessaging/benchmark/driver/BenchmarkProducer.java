@@ -34,4 +34,62 @@ public interface BenchmarkProducer extends AutoCloseable {
      */
     CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload);
 
+    /**
+     * Publish a message and notify the listener when the operation is completed.
+     * <p>
+     * This variant is used on the benchmark hot path. Drivers should override it when they can track the completion
+     * without allocating a {@link CompletableFuture} for each message, for instance with a {@link SendCompletionPool}.
+     * The default implementation bridges to {@link #sendAsync(Optional, byte[])}. It is called by one thread at a time
+     * for a given producer.
+     *
+     * @param key
+     *            the key associated with this message, or null
+     * @param payload
+     *            the message payload
+     * @param sendTime
+     *            the send time, passed back unchanged to the listener
+     * @param intendedSendTime
+     *            the time at which the message was scheduled to be sent, passed back unchanged to the listener
+     * @param listener
+     *            the listener to notify when the message is published or fails
+     */
+    default void sendAsync(String key, byte[] payload, long sendTime, long intendedSendTime,
+            SendCompletionListener listener) {
+        sendAsync(Optional.ofNullable(key), payload).whenComplete((v, ex) -> {
+            if (ex != null) {
+                listener.sendFailed(ex);
+            } else {
+                listener.sendCompleted(sendTime, intendedSendTime, payload.length);
+            }
+        });
+    }
+
+    /**
+     * Publish a batch of messages and notify the listener once for each message, as it is completed.
+     * <p>
+     * Drivers whose client can submit several messages in a single request should override this method. The default
+     * implementation publishes each message with {@link #sendAsync(String, byte[], long, long, SendCompletionListener)}.
+     * The arrays are reused by the caller once this method returns, so implementations must not keep references to
+     * them.
+     *
+     * @param keys
+     *            the keys associated with the messages, with null entries for messages without a key
+     * @param payloads
+     *            the message payloads
+     * @param intendedSendTimes
+     *            the times at which each message was scheduled to be sent, passed back unchanged to the listener
+     * @param count
+     *            the number of messages in the batch, which may be less than the length of the arrays
+     * @param sendTime
+     *            the send time of the batch, passed back unchanged to the listener
+     * @param listener
+     *            the listener to notify when each message is published or fails
+     */
+    default void sendBatchAsync(String[] keys, byte[][] payloads, long[] intendedSendTimes, int count, long sendTime,
+            SendCompletionListener listener) {
+        for (int i = 0; i < count; i++) {
+            sendAsync(keys[i], payloads[i], sendTime, intendedSendTimes[i], listener);
+        }
+    }
+
 }
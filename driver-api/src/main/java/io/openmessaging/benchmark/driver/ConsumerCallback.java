@@ -18,6 +18,8 @@
  */
 package io.openmessaging.benchmark.driver;
 
+import java.nio.ByteBuffer;
+
 /**
  * Callback that the driver implementation calls when a message is received
  */
@@ -31,4 +33,64 @@ public interface ConsumerCallback {
      *            the publish timestamp in milliseconds
      */
     void messageReceived(byte[] payload, long publishTimestamp);
+
+    /**
+     * Variant of {@link #messageReceived(byte[], long)} for drivers that can read the size of a message without
+     * copying its body into a new array.
+     * <p>
+     * The default implementation copies the payload into an array and calls {@link #messageReceived(byte[], long)}.
+     *
+     * @param size
+     *            the size of the received message payload
+     * @param payload
+     *            a view of the payload, starting at its position, that is only valid during the call. It can be null
+     *            when {@link #needsPayload()} returns false.
+     * @param publishTimestamp
+     *            the publish timestamp, in the same unit as {@link #messageReceived(byte[], long)}
+     */
+    default void messageReceived(int size, ByteBuffer payload, long publishTimestamp) {
+        byte[] data = new byte[size];
+        if (payload != null) {
+            payload.duplicate().get(data);
+        }
+        messageReceived(data, publishTimestamp);
+    }
+
+    /**
+     * Whether the content of the payloads is read by the callback. When it is not, drivers using
+     * {@link #messageReceived(int, ByteBuffer, long)} can pass a null payload.
+     *
+     * @return true if the payloads should be passed to the callback
+     */
+    default boolean needsPayload() {
+        return true;
+    }
+
+    /**
+     * Drivers that receive messages in batches can invoke this method once for each batch instead, which lets the
+     * benchmark update its counters once per batch. The arrays are reused by the driver once this method returns, so
+     * implementations must not keep references to them.
+     * <p>
+     * The default implementation calls {@link #messageReceived(byte[], long)} for each message, or
+     * {@link #messageReceived(int, ByteBuffer, long)} with its size and a null payload when its payload is null.
+     *
+     * @param payloads
+     *            the received message payloads, whose entries can be null when {@link #needsPayload()} returns false
+     * @param sizes
+     *            the size of each received message payload
+     * @param publishTimestamps
+     *            the publish timestamp of each message, in the same unit as
+     *            {@link #messageReceived(byte[], long)}
+     * @param count
+     *            the number of messages in the batch, which may be less than the length of the arrays
+     */
+    default void messagesReceived(byte[][] payloads, int[] sizes, long[] publishTimestamps, int count) {
+        for (int i = 0; i < count; i++) {
+            if (payloads[i] != null) {
+                messageReceived(payloads[i], publishTimestamps[i]);
+            } else {
+                messageReceived(sizes[i], null, publishTimestamps[i]);
+            }
+        }
+    }
 }
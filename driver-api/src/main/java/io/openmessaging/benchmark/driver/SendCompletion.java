@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.driver;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Callback that notifies a {@link SendCompletionListener} when one message is completed, with the state of that
+ * message.
+ * <p>
+ * Completions are taken from a {@link SendCompletionPool} for each message and go back to it as soon as they are
+ * completed, so that a driver can hand a callback to its client without allocating one per message. It can be passed
+ * as is to {@link java.util.concurrent.CompletableFuture#whenComplete(BiConsumer)}, and drivers whose client has its
+ * own callback type can extend it and call {@link #complete(Throwable)}.
+ */
+public class SendCompletion implements BiConsumer<Object, Throwable> {
+
+    // Set by the pool
+    SendCompletionPool<?> pool;
+    SendCompletion next;
+
+    private SendCompletionListener listener;
+    private long sendTime;
+    private long intendedSendTime;
+    private int payloadSize;
+
+    void set(SendCompletionListener listener, long sendTime, long intendedSendTime, int payloadSize) {
+        this.listener = listener;
+        this.sendTime = sendTime;
+        this.intendedSendTime = intendedSendTime;
+        this.payloadSize = payloadSize;
+    }
+
+    /**
+     * Notify the listener and give this completion back to its pool. It must not be used afterwards.
+     *
+     * @param cause
+     *            the publish error, or null if the message was published
+     */
+    public final void complete(Throwable cause) {
+        // Read the state first, the completion may be reused as soon as it is released
+        SendCompletionListener listener = this.listener;
+        long sendTime = this.sendTime;
+        long intendedSendTime = this.intendedSendTime;
+        int payloadSize = this.payloadSize;
+        this.listener = null;
+        pool.release(this);
+
+        if (cause != null) {
+            listener.sendFailed(cause);
+        } else {
+            listener.sendCompleted(sendTime, intendedSendTime, payloadSize);
+        }
+    }
+
+    @Override
+    public final void accept(Object result, Throwable cause) {
+        complete(cause);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.driver;
+
+/**
+ * Listener that the driver implementation notifies when a message sent through
+ * {@link BenchmarkProducer#sendAsync(String, byte[], long, long, SendCompletionListener)} is completed.
+ * <p>
+ * The same listener instance is reused for all the messages of a producer. The per-message state is handed back as
+ * primitives, so that tracking the completion does not require any allocation on behalf of the benchmark.
+ */
+public interface SendCompletionListener {
+
+    /**
+     * Driver should invoke this method once the message is successfully published
+     *
+     * @param sendTime
+     *            the send time that was passed when publishing the message
+     * @param intendedSendTime
+     *            the intended send time that was passed when publishing the message
+     * @param payloadSize
+     *            the size of the published payload
+     */
+    void sendCompleted(long sendTime, long intendedSendTime, int payloadSize);
+
+    /**
+     * Driver should invoke this method if the message could not be published
+     *
+     * @param cause
+     *            the publish error
+     */
+    void sendFailed(Throwable cause);
+}
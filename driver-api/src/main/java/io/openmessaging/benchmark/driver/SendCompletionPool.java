@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.driver;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Pool of the {@link SendCompletion}s of one producer.
+ * <p>
+ * The pool grows up to the number of messages in flight, after which sending a message reuses the completion of a
+ * message that was already completed. Completions are acquired by the thread that sends with the producer, one thread
+ * at a time as for {@link BenchmarkProducer#sendAsync(String, byte[], long, long, SendCompletionListener)}, and
+ * released from whichever thread the client completes them on. The free completions are kept in a lock-free stack,
+ * which is safe from ABA as only the sending thread pops from it.
+ *
+ * @param <T>
+ *            the type of completion the client of the driver takes
+ */
+public final class SendCompletionPool<T extends SendCompletion> {
+
+    private final Supplier<T> factory;
+    private final AtomicReference<SendCompletion> free = new AtomicReference<>();
+
+    public SendCompletionPool(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return a completion that notifies the listener with the given state of the message
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire(SendCompletionListener listener, long sendTime, long intendedSendTime, int payloadSize) {
+        SendCompletion completion;
+        do {
+            completion = free.get();
+        } while (completion != null && !free.compareAndSet(completion, completion.next));
+
+        if (completion == null) {
+            completion = factory.get();
+            completion.pool = this;
+        }
+        completion.next = null;
+        completion.set(listener, sendTime, intendedSendTime, payloadSize);
+        return (T) completion;
+    }
+
+    void release(SendCompletion completion) {
+        SendCompletion head;
+        do {
+            head = free.get();
+            completion.next = head;
+        } while (!free.compareAndSet(head, completion));
+    }
+}
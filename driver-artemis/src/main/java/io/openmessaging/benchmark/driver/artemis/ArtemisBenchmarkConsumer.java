@@ -18,6 +18,7 @@
  */
 package io.openmessaging.benchmark.driver.artemis;
 
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -42,9 +43,10 @@ public class ArtemisBenchmarkConsumer implements BenchmarkConsumer {
                 SimpleString.toSimpleString(queueName), true /* durable */);
         consumer = session.createConsumer(queueName);
         consumer.setMessageHandler(message -> {
-            byte[] payload = new byte[message.getBodyBuffer().readableBytes()];
-            message.getBodyBuffer().readBytes(payload);
-            callback.messageReceived(payload, message.getTimestamp());
+            // Hand over a view of the body instead of copying it into a new array
+            ActiveMQBuffer body = message.getBodyBuffer();
+            callback.messageReceived(body.readableBytes(), callback.needsPayload() ? body.toByteBuffer() : null,
+                    message.getTimestamp());
             try {
                 message.acknowledge();
             } catch (ActiveMQException e) {
@@ -55,6 +57,21 @@ public class ArtemisBenchmarkConsumer implements BenchmarkConsumer {
         session.start();
     }
 
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() throws Exception {
+        session.stop();
+    }
+
+    @Override
+    public void resume() throws Exception {
+        session.start();
+    }
+
     @Override
     public void close() throws Exception {
         consumer.close();
@@ -19,6 +19,7 @@
 package io.openmessaging.benchmark.driver.bookkeeper;
 
 import dlshade.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.buffer.ByteBuf;
 import io.openmessaging.benchmark.driver.BenchmarkConsumer;
 import io.openmessaging.benchmark.driver.ConsumerCallback;
 import java.io.IOException;
@@ -42,6 +43,7 @@ public class DlogBenchmarkConsumer implements BenchmarkConsumer {
     private final ExecutorService executor;
     private final Future<?> readerTask;
     private volatile boolean closing = false;
+    private volatile boolean paused = false;
 
     private static boolean backoff(long backoffTime, TimeUnit timeUnit) {
         try {
@@ -84,7 +86,7 @@ public class DlogBenchmarkConsumer implements BenchmarkConsumer {
                 }
 
                 try {
-                    record = reader.readNext(false);
+                    record = paused ? null : reader.readNext(false);
                     if (null == record) {
                         try {
                             Thread.sleep(1);
@@ -94,7 +96,10 @@ public class DlogBenchmarkConsumer implements BenchmarkConsumer {
                         continue;
                     }
 
-                    callback.messageReceived(record.getPayload(), record.getTransactionId());
+                    // getPayload() copies the payload, while the buffer gives its size and a view of it
+                    ByteBuf payload = record.getPayloadBuf();
+                    callback.messageReceived(payload.readableBytes(),
+                        callback.needsPayload() ? payload.nioBuffer() : null, record.getTransactionId());
 
                     lastDLSN = record.getDlsn();
                 } catch (IOException e) {
@@ -109,6 +114,21 @@ public class DlogBenchmarkConsumer implements BenchmarkConsumer {
         });
     }
 
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+    }
+
     @Override
     public void close() throws Exception {
         closing = true;
@@ -18,6 +18,8 @@
  */
 package io.openmessaging.benchmark.driver.bookkeeper;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -26,11 +28,15 @@ import org.apache.distributedlog.api.AsyncLogWriter;
 import org.apache.distributedlog.util.TimeSequencer;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletion;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import io.openmessaging.benchmark.driver.SendCompletionPool;
 
 public class DlogBenchmarkProducer implements BenchmarkProducer {
 
     private final AsyncLogWriter writer;
     private final TimeSequencer sequencer = new TimeSequencer();
+    private final SendCompletionPool<SendCompletion> completions = new SendCompletionPool<>(SendCompletion::new);
 
     public DlogBenchmarkProducer(AsyncLogWriter writer) {
         this.writer = writer;
@@ -50,4 +56,39 @@ public class DlogBenchmarkProducer implements BenchmarkProducer {
         return writer.write(record).thenApply(dlsn -> null);
     }
 
+    @Override
+    public void sendAsync(String key, byte[] payload, long sendTime, long intendedSendTime,
+            SendCompletionListener listener) {
+        LogRecord record = new LogRecord(
+            sequencer.nextId(), payload);
+
+        // The writer completes a future anyway, only the callback is reused
+        writer.write(record).whenComplete(completions.acquire(listener, sendTime, intendedSendTime, payload.length));
+    }
+
+    @Override
+    public void sendBatchAsync(String[] keys, byte[][] payloads, long[] intendedSendTimes, int count, long sendTime,
+            SendCompletionListener listener) {
+        List<LogRecord> records = new ArrayList<>(count);
+        // Acquired here rather than when the bulk write completes, as only the sending thread may acquire them
+        SendCompletion[] batchCompletions = new SendCompletion[count];
+        for (int i = 0; i < count; i++) {
+            records.add(new LogRecord(sequencer.nextId(), payloads[i]));
+            batchCompletions[i] = completions.acquire(listener, sendTime, intendedSendTimes[i], payloads[i].length);
+        }
+
+        writer.writeBulk(records).whenComplete((results, ex) -> {
+            if (ex != null) {
+                for (SendCompletion completion : batchCompletions) {
+                    completion.complete(ex);
+                }
+                return;
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).whenComplete(batchCompletions[i]);
+            }
+        });
+    }
+
 }
@@ -19,6 +19,7 @@
 package io.openmessaging.benchmark.driver.kafka;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -46,6 +47,12 @@ public class KafkaBenchmarkConsumer implements BenchmarkConsumer {
     private final ExecutorService executor;
     private final Future<?> consumerTask;
     private volatile boolean closing = false;
+    private volatile boolean paused = false;
+
+    // Reused for each poll, only accessed by the poll thread
+    private byte[][] payloads = new byte[0][];
+    private int[] sizes = new int[0];
+    private long[] publishTimestamps = new long[0];
 
     public KafkaBenchmarkConsumer(KafkaConsumer<String, byte[]> consumer, ConsumerCallback callback) {
         this.consumer = consumer;
@@ -54,15 +61,31 @@ public class KafkaBenchmarkConsumer implements BenchmarkConsumer {
         this.consumerTask = this.executor.submit(() -> {
             while (!closing) {
                 try {
+                    // The consumer is not thread safe, so the partitions are paused from the poll thread. They are
+                    // paused again on each iteration to cover the partitions assigned by a rebalance.
+                    if (paused) {
+                        consumer.pause(consumer.assignment());
+                    } else if (!consumer.paused().isEmpty()) {
+                        consumer.resume(consumer.paused());
+                    }
+
                     ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    ensureCapacity(records.count());
+                    int count = 0;
                     Map<TopicPartition, OffsetAndMetadata> offsetMap = new HashMap<>();
                     for (ConsumerRecord<String, byte[]> record : records) {
-                        callback.messageReceived(record.value(), TimeUnit.MILLISECONDS.toNanos(record.timestamp()));
+                        payloads[count] = record.value();
+                        sizes[count] = record.serializedValueSize();
+                        publishTimestamps[count] = TimeUnit.MILLISECONDS.toNanos(record.timestamp());
+                        count++;
                         offsetMap.put(new TopicPartition(record.topic(), record.partition()),
                                 new OffsetAndMetadata(record.offset()));
                     }
 
                     if (!records.isEmpty()) {
+                        callback.messagesReceived(payloads, sizes, publishTimestamps, count);
+                        Arrays.fill(payloads, 0, count, null);
+
                         // Async commit all messages polled so far
                         consumer.commitAsync(offsetMap, null);
                     }
@@ -73,6 +96,29 @@ public class KafkaBenchmarkConsumer implements BenchmarkConsumer {
         });
     }
 
+    private void ensureCapacity(int count) {
+        if (payloads.length < count) {
+            payloads = new byte[count][];
+            sizes = new int[count];
+            publishTimestamps = new long[count];
+        }
+    }
+
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+    }
+
     @Override
     public void close() throws Exception {
         closing = true;
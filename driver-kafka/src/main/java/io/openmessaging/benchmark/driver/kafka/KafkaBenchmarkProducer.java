@@ -21,17 +21,24 @@ package io.openmessaging.benchmark.driver.kafka;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletion;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import io.openmessaging.benchmark.driver.SendCompletionPool;
 
 public class KafkaBenchmarkProducer implements BenchmarkProducer {
 
-    private final KafkaProducer<String, byte[]> producer;
+    private final Producer<String, byte[]> producer;
     private final String topic;
+    private final SendCompletionPool<KafkaSendCompletion> completions = new SendCompletionPool<>(
+            KafkaSendCompletion::new);
 
-    public KafkaBenchmarkProducer(KafkaProducer<String, byte[]> producer, String topic) {
+    public KafkaBenchmarkProducer(Producer<String, byte[]> producer, String topic) {
         this.producer = producer;
         this.topic = topic;
     }
@@ -53,9 +60,24 @@ public class KafkaBenchmarkProducer implements BenchmarkProducer {
         return future;
     }
 
+    @Override
+    public void sendAsync(String key, byte[] payload, long sendTime, long intendedSendTime,
+            SendCompletionListener listener) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+
+        producer.send(record, completions.acquire(listener, sendTime, intendedSendTime, payload.length));
+    }
+
     @Override
     public void close() throws Exception {
         producer.close();
     }
 
+    private static final class KafkaSendCompletion extends SendCompletion implements Callback {
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            complete(exception);
+        }
+    }
+
 }
@@ -21,6 +21,9 @@ package io.openmessaging.benchmark.driver.nsq;
 import com.github.brainlag.nsq.NSQProducer;
 import com.github.brainlag.nsq.exceptions.NSQException;
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -69,6 +72,43 @@ public class NsqBenchmarkProducer implements BenchmarkProducer {
         return future;
     }
 
+    @Override public void sendBatchAsync(String[] keys, byte[][] payloads, long[] intendedSendTimes, int count,
+            long sendTime, SendCompletionListener listener) {
+        List<byte[]> messages = new ArrayList<>(count);
+        long[] intended = new long[count];
+        for (int i = 0; i < count; i++) {
+            messages.add(payloads[i]);
+            intended[i] = intendedSendTimes[i];
+        }
+
+        try {
+            semaphore.acquire();
+
+            executor.submit(() -> {
+                try {
+                    nsqProducer.produceMulti(topic, messages);
+                } catch (NSQException | TimeoutException e) {
+                    log.error("send exception", e);
+                    for (int i = 0; i < count; i++) {
+                        listener.sendFailed(e);
+                    }
+                    return;
+                } finally {
+                    semaphore.release();
+                }
+
+                for (int i = 0; i < count; i++) {
+                    listener.sendCompleted(sendTime, intended[i], messages.get(i).length);
+                }
+            });
+        } catch (InterruptedException e) {
+            log.error("semaphore exception", e);
+            for (int i = 0; i < count; i++) {
+                listener.sendFailed(e);
+            }
+        }
+    }
+
     @Override public void close() throws Exception {
         this.nsqProducer.shutdown();
     }
@@ -30,6 +30,21 @@ public class PulsarBenchmarkConsumer implements BenchmarkConsumer {
         this.consumer = consumer;
     }
 
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() {
+        consumer.pause();
+    }
+
+    @Override
+    public void resume() {
+        consumer.resume();
+    }
+
     @Override
     public void close() throws Exception {
         consumer.close();
@@ -175,8 +175,8 @@ public class PulsarBenchmarkDriver implements BenchmarkDriver {
             Optional<Integer> partition, ConsumerCallback consumerCallback) {
         return client.newConsumer().priorityLevel(0).subscriptionType(SubscriptionType.Failover)
                 .messageListener((consumer, msg) -> {
-                    consumerCallback.messageReceived(msg.getData(),
-                            TimeUnit.MILLISECONDS.toNanos(msg.getPublishTime()));
+                    long publishTimestamp = TimeUnit.MILLISECONDS.toNanos(msg.getPublishTime());
+                    PulsarMessagePayload.deliver(msg, publishTimestamp, consumerCallback);
                     consumer.acknowledgeAsync(msg);
                 }).topic(topic).subscriptionName(subscriptionName).subscribeAsync()
                 .thenApply(consumer -> new PulsarBenchmarkConsumer(consumer));
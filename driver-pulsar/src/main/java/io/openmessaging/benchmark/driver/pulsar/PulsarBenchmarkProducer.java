@@ -25,10 +25,14 @@ import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.TypedMessageBuilder;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletion;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
+import io.openmessaging.benchmark.driver.SendCompletionPool;
 
 public class PulsarBenchmarkProducer implements BenchmarkProducer {
 
     private final Producer<byte[]> producer;
+    private final SendCompletionPool<SendCompletion> completions = new SendCompletionPool<>(SendCompletion::new);
 
     public PulsarBenchmarkProducer(Producer<byte[]> producer) {
         this.producer = producer;
@@ -49,4 +53,16 @@ public class PulsarBenchmarkProducer implements BenchmarkProducer {
         return msgBuilder.sendAsync().thenApply(msgId -> null);
     }
 
+    @Override
+    public void sendAsync(String key, byte[] payload, long sendTime, long intendedSendTime,
+            SendCompletionListener listener) {
+        TypedMessageBuilder<byte[]> msgBuilder = producer.newMessage().value(payload);
+        if (key != null) {
+            msgBuilder.key(key);
+        }
+
+        // The client completes a future anyway, only the callback is reused
+        msgBuilder.sendAsync().whenComplete(completions.acquire(listener, sendTime, intendedSendTime, payload.length));
+    }
+
 }
@@ -0,0 +1,72 @@
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.driver.pulsar;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.impl.MessageImpl;
+import org.apache.pulsar.shade.io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.openmessaging.benchmark.driver.ConsumerCallback;
+
+/**
+ * Hand the payload of a received message to a {@link ConsumerCallback} without copying it.
+ * <p>
+ * The public {@link Message} API only gives the payload as a copy, so its size and a view of it are read from the
+ * buffer of the client's internal {@link MessageImpl} instead. That class is not part of the public API, and its
+ * buffer is of the netty type shaded in the client, so both may change with any client version. The access is
+ * checked once, and the payload is copied with {@link Message#getData()} when it is not available.
+ * {@code PulsarMessagePayloadTest} fails when the client version differs from {@link #VERIFIED_CLIENT_VERSION}, so
+ * that the access is checked again on every client upgrade.
+ */
+final class PulsarMessagePayload {
+
+    static final String VERIFIED_CLIENT_VERSION = "2.6.0";
+
+    private static final boolean DATA_BUFFER_AVAILABLE = isDataBufferAvailable();
+
+    private PulsarMessagePayload() {
+    }
+
+    static void deliver(Message<?> msg, long publishTimestamp, ConsumerCallback consumerCallback) {
+        if (DATA_BUFFER_AVAILABLE && msg instanceof MessageImpl) {
+            ByteBuf data = ((MessageImpl<?>) msg).getDataBuffer();
+            consumerCallback.messageReceived(data.readableBytes(),
+                    consumerCallback.needsPayload() ? data.nioBuffer() : null, publishTimestamp);
+        } else {
+            consumerCallback.messageReceived(msg.getData(), publishTimestamp);
+        }
+    }
+
+    static boolean isDataBufferAvailable() {
+        try {
+            if (MessageImpl.class.getMethod("getDataBuffer").getReturnType() == ByteBuf.class) {
+                return true;
+            }
+        } catch (NoSuchMethodException | LinkageError e) {
+            // Reported below
+        }
+        log.warn("The Pulsar client has no MessageImpl.getDataBuffer(), the received payloads will be copied");
+        return false;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(PulsarMessagePayload.class);
+}
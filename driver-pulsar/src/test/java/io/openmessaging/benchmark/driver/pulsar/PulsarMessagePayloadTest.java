@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.openmessaging.benchmark.driver.pulsar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.pulsar.PulsarVersion;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.impl.MessageImpl;
+import org.apache.pulsar.common.api.proto.PulsarApi.MessageMetadata;
+import org.junit.Test;
+
+import io.openmessaging.benchmark.driver.ConsumerCallback;
+
+public class PulsarMessagePayloadTest {
+
+    @Test
+    public void testClientVersionWasVerified() {
+        assertEquals("PulsarMessagePayload relies on the internals of the client, check them and update "
+                + "VERIFIED_CLIENT_VERSION", PulsarMessagePayload.VERIFIED_CLIENT_VERSION, PulsarVersion.getVersion());
+        assertTrue(PulsarMessagePayload.isDataBufferAvailable());
+    }
+
+    @Test
+    public void testPayloadIsPassedAsView() {
+        // Given
+        byte[] payload = { 1, 2, 3, 4, 5 };
+        MessageImpl<byte[]> msg = MessageImpl.create(MessageMetadata.newBuilder(), ByteBuffer.wrap(payload),
+                Schema.BYTES);
+        RecordingCallback callback = new RecordingCallback();
+
+        // When
+        PulsarMessagePayload.deliver(msg, 42L, callback);
+
+        // Then
+        assertEquals(payload.length, callback.size);
+        assertArrayEquals(payload, callback.payload);
+        assertEquals(42L, callback.publishTimestamp);
+    }
+
+    private static final class RecordingCallback implements ConsumerCallback {
+        private int size = -1;
+        private byte[] payload;
+        private long publishTimestamp;
+
+        @Override
+        public void messageReceived(byte[] payload, long publishTimestamp) {
+            throw new AssertionError("The payload was copied");
+        }
+
+        @Override
+        public void messageReceived(int size, ByteBuffer payload, long publishTimestamp) {
+            this.size = size;
+            this.payload = new byte[payload.remaining()];
+            payload.duplicate().get(this.payload);
+            this.publishTimestamp = publishTimestamp;
+        }
+    }
+}
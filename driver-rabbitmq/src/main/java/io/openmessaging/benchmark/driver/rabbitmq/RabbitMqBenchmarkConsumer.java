@@ -31,12 +31,14 @@ import io.openmessaging.benchmark.driver.ConsumerCallback;
 public class RabbitMqBenchmarkConsumer extends DefaultConsumer implements BenchmarkConsumer {
 
     private final Channel channel;
+    private final String queueName;
     private final ConsumerCallback callback;
 
     public RabbitMqBenchmarkConsumer(Channel channel, String queueName, ConsumerCallback callback) throws IOException {
         super(channel);
 
         this.channel = channel;
+        this.queueName = queueName;
         this.callback = callback;
         // channel.basicQos(300);
         channel.basicConsume(queueName, true, this);
@@ -51,6 +53,22 @@ public class RabbitMqBenchmarkConsumer extends DefaultConsumer implements Benchm
         callback.messageReceived(body, nanoTime);
     }
 
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() throws IOException {
+        // Messages stay in the queue until a new subscription is made
+        channel.basicCancel(getConsumerTag());
+    }
+
+    @Override
+    public void resume() throws IOException {
+        channel.basicConsume(queueName, true, this);
+    }
+
     @Override
     public void close() throws Exception {
         if (this.channel.isOpen()) {
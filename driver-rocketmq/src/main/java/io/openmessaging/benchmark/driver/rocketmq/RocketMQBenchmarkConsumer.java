@@ -28,6 +28,21 @@ public class RocketMQBenchmarkConsumer implements BenchmarkConsumer {
         this.rmqConsumer = rmqConsumer;
     }
 
+    @Override
+    public boolean supportsPause() {
+        return true;
+    }
+
+    @Override
+    public void pause() {
+        this.rmqConsumer.suspend();
+    }
+
+    @Override
+    public void resume() {
+        this.rmqConsumer.resume();
+    }
+
     @Override
     public void close() throws Exception {
         this.rmqConsumer.shutdown();
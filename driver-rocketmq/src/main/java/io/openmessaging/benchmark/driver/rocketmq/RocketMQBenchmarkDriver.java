@@ -33,7 +33,10 @@ import java.io.IOException;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.bookkeeper.stats.StatsLogger;
@@ -49,10 +52,13 @@ import org.apache.rocketmq.tools.command.CommandUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.util.concurrent.DefaultThreadFactory;
+
 public class RocketMQBenchmarkDriver implements BenchmarkDriver {
     private DefaultMQAdminExt rmqAdmin;
     private RocketMQClientConfig rmqClientConfig;
     DefaultMQProducer rmqProducer;
+    private ExecutorService batchExecutor;
 
     @Override
     public void initialize(final File configurationFile, final StatsLogger statsLogger) throws IOException {
@@ -67,6 +73,15 @@ public class RocketMQBenchmarkDriver implements BenchmarkDriver {
             log.error("Start the RocketMQ admin tool failed.");
         }
 
+        // Each batch holds a sender thread until it is sent, so the threads bound the batches in flight. Once they
+        // are all busy, the batches queue up to the same limit, and then the producer thread sends them itself,
+        // which pushes back on the load instead of piling up threads
+        int maxInFlightBatches = this.rmqClientConfig.maxInFlightBatches != null
+                ? this.rmqClientConfig.maxInFlightBatches
+                : DEFAULT_MAX_IN_FLIGHT_BATCHES;
+        this.batchExecutor = new ThreadPoolExecutor(maxInFlightBatches, maxInFlightBatches, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxInFlightBatches), new DefaultThreadFactory("rocketmq-batch-sender"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     @Override
@@ -128,7 +143,7 @@ public class RocketMQBenchmarkDriver implements BenchmarkDriver {
             }
         }
 
-        return CompletableFuture.completedFuture(new RocketMQBenchmarkProducer(rmqProducer, topic));
+        return CompletableFuture.completedFuture(new RocketMQBenchmarkProducer(rmqProducer, topic, batchExecutor));
     }
 
     @Override
@@ -140,13 +155,24 @@ public class RocketMQBenchmarkDriver implements BenchmarkDriver {
         if (null != this.rmqClientConfig.vipChannelEnabled) {
             rmqConsumer.setVipChannelEnabled(this.rmqClientConfig.vipChannelEnabled);
         }
+        if (null != this.rmqClientConfig.consumeMessageBatchMaxSize) {
+            rmqConsumer.setConsumeMessageBatchMaxSize(this.rmqClientConfig.consumeMessageBatchMaxSize);
+        }
         try {
             rmqConsumer.subscribe(topic, "*");
             rmqConsumer.registerMessageListener((MessageListenerConcurrently) (msgs, context) -> {
-                for (MessageExt message : msgs) {
-                    consumerCallback.messageReceived(message.getBody(),
-                            TimeUnit.MILLISECONDS.toNanos(message.getBornTimestamp()));
+                // The listener is called concurrently by the consume threads, so the arrays are not shared
+                int count = msgs.size();
+                byte[][] payloads = new byte[count][];
+                int[] sizes = new int[count];
+                long[] publishTimestamps = new long[count];
+                for (int i = 0; i < count; i++) {
+                    MessageExt message = msgs.get(i);
+                    payloads[i] = message.getBody();
+                    sizes[i] = payloads[i].length;
+                    publishTimestamps[i] = TimeUnit.MILLISECONDS.toNanos(message.getBornTimestamp());
                 }
+                consumerCallback.messagesReceived(payloads, sizes, publishTimestamps, count);
                 return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
             });
             rmqConsumer.start();
@@ -159,12 +185,19 @@ public class RocketMQBenchmarkDriver implements BenchmarkDriver {
 
     @Override
     public void close() throws Exception {
+        if (this.batchExecutor != null) {
+            // Let the batches in flight be sent before the producer is shut down
+            this.batchExecutor.shutdown();
+            this.batchExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        }
         if (this.rmqProducer != null) {
             this.rmqProducer.shutdown();
         }
         this.rmqAdmin.shutdown();
     }
 
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 16;
+
     private static final ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
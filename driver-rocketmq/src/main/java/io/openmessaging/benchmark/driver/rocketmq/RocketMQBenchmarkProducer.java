@@ -18,8 +18,11 @@
  */
 package io.openmessaging.benchmark.driver.rocketmq;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.SendCallback;
@@ -27,14 +30,18 @@ import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.message.Message;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.SendCompletionListener;
 
 public class RocketMQBenchmarkProducer implements BenchmarkProducer {
     private final DefaultMQProducer rmqProducer;
     private final String rmqTopic;
+    private final ExecutorService batchExecutor;
 
-    public RocketMQBenchmarkProducer(final DefaultMQProducer rmqProducer, final String rmqTopic) {
+    public RocketMQBenchmarkProducer(final DefaultMQProducer rmqProducer, final String rmqTopic,
+            final ExecutorService batchExecutor) {
         this.rmqProducer = rmqProducer;
         this.rmqTopic = rmqTopic;
+        this.batchExecutor = batchExecutor;
     }
 
     @Override
@@ -63,6 +70,46 @@ public class RocketMQBenchmarkProducer implements BenchmarkProducer {
         return future;
     }
 
+    /**
+     * The RocketMQ client only supports batches with the blocking send call, so batches are sent from a separate
+     * executor to avoid stalling the producer thread.
+     */
+    @Override
+    public void sendBatchAsync(final String[] keys, final byte[][] payloads, final long[] intendedSendTimes,
+            final int count, final long sendTime, final SendCompletionListener listener) {
+        List<Message> messages = new ArrayList<>(count);
+        long[] intended = new long[count];
+        for (int i = 0; i < count; i++) {
+            Message message = new Message(this.rmqTopic, payloads[i]);
+            if (keys[i] != null) {
+                message.setKeys(keys[i]);
+            }
+            messages.add(message);
+            intended[i] = intendedSendTimes[i];
+        }
+
+        try {
+            batchExecutor.execute(() -> {
+                try {
+                    this.rmqProducer.send(messages);
+                } catch (Exception e) {
+                    for (int i = 0; i < count; i++) {
+                        listener.sendFailed(e);
+                    }
+                    return;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    listener.sendCompleted(sendTime, intended[i], messages.get(i).getBody().length);
+                }
+            });
+        } catch (Exception e) {
+            for (int i = 0; i < count; i++) {
+                listener.sendFailed(e);
+            }
+        }
+    }
+
     @Override
     public void close() throws Exception {
         // Close in Driver
@@ -24,4 +24,6 @@ public class RocketMQClientConfig {
     public Boolean vipChannelEnabled;
     public Integer maxMessageSize;
     public Integer compressMsgBodyOverHowmuch;
+    public Integer consumeMessageBatchMaxSize;
+    public Integer maxInFlightBatches;
 }
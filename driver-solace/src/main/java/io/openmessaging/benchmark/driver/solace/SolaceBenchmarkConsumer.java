@@ -61,6 +61,21 @@ public class SolaceBenchmarkConsumer implements BenchmarkConsumer {
 		}
 	}
 
+	@Override
+	public boolean supportsPause() {
+		return true;
+	}
+
+	@Override
+	public void pause() {
+		consumer.stop();
+	}
+
+	@Override
+	public void resume() throws JCSMPException {
+		consumer.start();
+	}
+
 	@Override
 	public void close() throws Exception {
 		this.closed = true;